@@ -0,0 +1,95 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import com.thehutgroup.accelerator.connectn.player.Board;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs one engine search on its own thread once the first subscriber arrives and
+// streams its updates. Updates are offered without blocking, so a slow subscriber
+// loses intermediate updates rather than stalling the search. The search stops
+// early once every subscriber has cancelled.
+class AnalysisPublisher extends SubmissionPublisher<AnalysisUpdate> {
+    private final StackOverFour engine;
+    private final Board board;
+    private final long timeLimitMs;
+    private final int multiPv;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicInteger activeSubscribers = new AtomicInteger(0);
+
+    AnalysisPublisher(StackOverFour engine, Board board, long timeLimitMs, int multiPv) {
+        this.engine = engine;
+        this.board = board;
+        this.timeLimitMs = timeLimitMs;
+        this.multiPv = multiPv;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super AnalysisUpdate> subscriber) {
+        // Cleared before onSubscribe can be delivered, so a cancel made there is never erased
+        boolean first = started.compareAndSet(false, true);
+        if (first) engine.clearStopRequest();
+
+        activeSubscribers.incrementAndGet();
+        super.subscribe(new CancellationTrackingSubscriber(subscriber));
+
+        if (first) {
+            Thread searchThread = new Thread(this::search, "stack-over-four-analysis");
+            searchThread.setDaemon(true);
+            searchThread.start();
+        }
+    }
+
+    private void search() {
+        try {
+            engine.runAnalysis(board, timeLimitMs, multiPv,
+                    update -> offer(update, (subscriber, dropped) -> false));
+            close();
+        } catch (Exception e) {
+            closeExceptionally(e);
+        }
+    }
+
+    private class CancellationTrackingSubscriber implements Flow.Subscriber<AnalysisUpdate> {
+        private final Flow.Subscriber<? super AnalysisUpdate> delegate;
+
+        CancellationTrackingSubscriber(Flow.Subscriber<? super AnalysisUpdate> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(new Flow.Subscription() {
+                private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+                @Override
+                public void request(long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    subscription.cancel();
+                    if (cancelled.compareAndSet(false, true) && activeSubscribers.decrementAndGet() == 0) {
+                        engine.requestStop();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onNext(AnalysisUpdate item) {
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            delegate.onComplete();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+// Outcome of searching one position: best move, score from the mover's side,
+// completed depth, principal variation and search effort. A depth of 0 means no iteration
+// completed within the budget: bestMove is then only a legal fallback and score means nothing.
+class AnalysisResult {
+    final int bestMove;
+    final int score;
+    final int depth;
+    final int[] principalVariation;
+    final long nodes;
+    final long elapsedMs;
+
+    AnalysisResult(int bestMove, int score, int depth, int[] principalVariation, long nodes, long elapsedMs) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.principalVariation = principalVariation;
+        this.nodes = nodes;
+        this.elapsedMs = elapsedMs;
+    }
+
+    boolean hasResult() {
+        return depth > 0;
+    }
+
+    String principalVariationString() {
+        return Arrays.stream(principalVariation).mapToObj(Integer::toString).collect(Collectors.joining(" "));
+    }
+}
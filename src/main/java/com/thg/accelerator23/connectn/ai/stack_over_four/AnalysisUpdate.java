@@ -0,0 +1,78 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import java.util.List;
+
+// One streamed analysis result. Published whenever the root best move changes during an
+// iteration (complete == false, a single line) and after every completed depth
+// (complete == true, up to multiPv lines ordered best first).
+public class AnalysisUpdate {
+
+    public static class Line {
+        private final int move;
+        private final int score;
+        private final int[] principalVariation;
+
+        Line(int move, int score, int[] principalVariation) {
+            this.move = move;
+            this.score = score;
+            this.principalVariation = principalVariation;
+        }
+
+        public int getMove() {
+            return move;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int[] getPrincipalVariation() {
+            return principalVariation.clone();
+        }
+    }
+
+    private final int depth;
+    private final boolean complete;
+    private final long nodes;
+    private final long nodesPerSecond;
+    private final List<Line> lines;
+
+    AnalysisUpdate(int depth, boolean complete, long nodes, long nodesPerSecond, List<Line> lines) {
+        this.depth = depth;
+        this.complete = complete;
+        this.nodes = nodes;
+        this.nodesPerSecond = nodesPerSecond;
+        this.lines = List.copyOf(lines);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getNodesPerSecond() {
+        return nodesPerSecond;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    public int getBestMove() {
+        return lines.get(0).getMove();
+    }
+
+    public int getScore() {
+        return lines.get(0).getScore();
+    }
+
+    public int[] getPrincipalVariation() {
+        return lines.get(0).getPrincipalVariation();
+    }
+}
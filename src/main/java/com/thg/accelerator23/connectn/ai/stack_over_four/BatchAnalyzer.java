@@ -0,0 +1,214 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import com.thehutgroup.accelerator.connectn.player.Board;
+import com.thehutgroup.accelerator.connectn.player.Counter;
+import com.thehutgroup.accelerator.connectn.player.GameConfig;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Offline bulk analysis. Streams positions from a text file, searches them in parallel
+// with a per-position budget and streams results to a tab-separated output file in input
+// order. Only a small window of positions is in flight, so input size is unbounded.
+//
+// Input: one position per line as the columns played from the empty board, O first.
+// Digits ("4453") or, for boards wider than 10, comma/space separated ("4,4,10,3").
+// Blank lines and lines starting with '#' are skipped. Positions whose budget ran out
+// before any depth completed are written as NO_RESULT rather than a guessed move.
+//
+// A checkpoint (<output>.checkpoint) is written every CHECKPOINT_INTERVAL positions;
+// --resume truncates the output to the last checkpoint and carries on from there.
+//
+// Usage: BatchAnalyzer <input> <output> [--threads N] [--time-ms N] [--nodes N]
+//                      [--config WxHxN] [--resume]
+public class BatchAnalyzer {
+    static final String HEADER = "# line\tmoves\tbest\tscore\tdepth\tnodes\tms\tpv";
+    private static final int CHECKPOINT_INTERVAL = 100;
+    private static final int WINDOW_PER_THREAD = 2;
+
+    private final GameConfig config;
+    private final int threads;
+    private final long timeLimitMs;
+    private final long nodeLimit;
+    private final ThreadLocal<StackOverFour[]> engines = ThreadLocal.withInitial(() ->
+            new StackOverFour[]{new StackOverFour(Counter.O), new StackOverFour(Counter.X)});
+
+    BatchAnalyzer(GameConfig config, int threads, long timeLimitMs, long nodeLimit) {
+        this.config = config;
+        this.threads = threads;
+        this.timeLimitMs = timeLimitMs;
+        this.nodeLimit = nodeLimit;
+    }
+
+    // Returns the number of positions analysed in this run
+    long run(Path input, Path output, boolean resume) throws IOException, InterruptedException {
+        Path checkpoint = checkpointPath(output);
+        long skip = 0;
+        long offset = 0;
+        if (resume && Files.exists(checkpoint)) {
+            List<String> lines = Files.readAllLines(checkpoint, StandardCharsets.UTF_8);
+            skip = Long.parseLong(lines.get(0).trim());
+            offset = Long.parseLong(lines.get(1).trim());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.currentTimeMillis();
+        long analysed = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(offset);
+            channel.position(offset);
+            Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            if (offset == 0) {
+                writer.write(HEADER);
+                writer.write('\n');
+            }
+
+            ArrayDeque<Future<String>> window = new ArrayDeque<>();
+            long positions = 0;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String moves = line.trim();
+                if (moves.isEmpty() || moves.startsWith("#")) continue;
+                if (positions++ < skip) continue;
+
+                long currentLine = lineNumber;
+                window.add(pool.submit(() -> analyzeLine(currentLine, moves)));
+                if (window.size() >= threads * WINDOW_PER_THREAD) {
+                    writeResult(writer, window.poll());
+                    analysed++;
+                    if (analysed % CHECKPOINT_INTERVAL == 0) {
+                        saveCheckpoint(writer, channel, checkpoint, skip + analysed);
+                        reportProgress(analysed, start);
+                    }
+                }
+            }
+
+            while (!window.isEmpty()) {
+                writeResult(writer, window.poll());
+                analysed++;
+            }
+            saveCheckpoint(writer, channel, checkpoint, skip + analysed);
+            reportProgress(analysed, start);
+        } finally {
+            pool.shutdownNow();
+        }
+        return analysed;
+    }
+
+    private String analyzeLine(long lineNumber, String moves) {
+        try {
+            int[] columns = parseMoves(moves);
+            Board board = new Board(config);
+            Counter player = Counter.O;
+            for (int col : columns) {
+                board = new Board(board, col, player);
+                player = player.getOther();
+            }
+
+            StackOverFour engine = engines.get()[player == Counter.O ? 0 : 1];
+            AnalysisResult result = engine.analyze(board, timeLimitMs, nodeLimit);
+            if (!result.hasResult()) {
+                return lineNumber + "\t" + moves + "\tNO_RESULT\tno depth completed in " + result.nodes +
+                        " nodes, " + result.elapsedMs + " ms";
+            }
+            return lineNumber + "\t" + moves + "\t" + result.bestMove + "\t" + result.score + "\t" +
+                    result.depth + "\t" + result.nodes + "\t" + result.elapsedMs + "\t" +
+                    result.principalVariationString();
+        } catch (Exception e) {
+            return lineNumber + "\t" + moves + "\tERROR\t" + e.getMessage();
+        }
+    }
+
+    static int[] parseMoves(String moves) {
+        if (moves.contains(",") || moves.contains(" ")) {
+            return Arrays.stream(moves.split("[,\\s]+")).mapToInt(Integer::parseInt).toArray();
+        }
+        int[] columns = new int[moves.length()];
+        for (int i = 0; i < moves.length(); i++) {
+            char c = moves.charAt(i);
+            if (c < '0' || c > '9') throw new IllegalArgumentException("Bad column '" + c + "'");
+            columns[i] = c - '0';
+        }
+        return columns;
+    }
+
+    private void writeResult(Writer writer, Future<String> result) throws IOException, InterruptedException {
+        try {
+            writer.write(result.get());
+        } catch (ExecutionException e) {
+            writer.write("# ERROR\t" + e.getCause());
+        }
+        writer.write('\n');
+    }
+
+    // Flushes the output first, so the checkpoint never points past data on disk
+    private void saveCheckpoint(Writer writer, FileChannel channel, Path checkpoint, long positions) throws IOException {
+        writer.flush();
+        channel.force(false);
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        Files.write(temporary, (positions + "\n" + channel.position() + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void reportProgress(long analysed, long start) {
+        double minutes = Math.max(1, System.currentTimeMillis() - start) / 60_000.0;
+        System.err.printf("%,d positions, %,.1f positions/min%n", analysed, analysed / minutes);
+    }
+
+    static Path checkpointPath(Path output) {
+        return output.resolveSibling(output.getFileName() + ".checkpoint");
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: BatchAnalyzer <input> <output> [--threads N] [--time-ms N] [--nodes N] " +
+                    "[--config WxHxN] [--resume]");
+            System.exit(1);
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        long timeLimitMs = 1000;
+        long nodeLimit = Long.MAX_VALUE;
+        GameConfig config = new GameConfig(10, 8, 4);
+        boolean resume = false;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--time-ms": timeLimitMs = Long.parseLong(args[++i]); break;
+                case "--nodes": nodeLimit = Long.parseLong(args[++i]); break;
+                case "--resume": resume = true; break;
+                case "--config": {
+                    String[] parts = args[++i].split("x");
+                    config = new GameConfig(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                            Integer.parseInt(parts[2]));
+                    break;
+                }
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        new BatchAnalyzer(config, threads, timeLimitMs, nodeLimit)
+                .run(Paths.get(args[0]), Paths.get(args[1]), resume);
+    }
+}
@@ -0,0 +1,104 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import com.thehutgroup.accelerator.connectn.player.GameConfig;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Read-only lookup tables for one board shape. Built once per GameConfig from the engine's
+// loaded weights and shared by every engine instance in the JVM, so nothing in here may be
+// mutated after construction.
+final class ConfigTables {
+    static final int LINE_LENGTH = 4;
+    static final int POSITION_VALUE_SCALE = 100;
+
+    private static final long ZOBRIST_SEED = 0x5EED_C0FFEEL;
+    private static final int CENTER_BONUS = 2000;
+    private static final ConcurrentHashMap<String, ConfigTables> CACHE = new ConcurrentHashMap<>();
+
+    final int width;
+    final int height;
+    final int nInARow;
+
+    // Centre-first column order
+    final int[] centreOrder;
+    final int[] columnBonus;
+    final int[][] positionWeights;
+
+    // Zobrist keys, one per cell and counter, plus the side-to-move key for X
+    final long[][][] zobristKeys;
+    final long zobristSideKey;
+
+    // Every line of LINE_LENGTH cells on the board
+    final int[][] lineColumns;
+    final int[][] lineRows;
+
+    private ConfigTables(GameConfig config, EvaluationWeights weights) {
+        this.width = config.getWidth();
+        this.height = config.getHeight();
+        this.nInARow = config.getnInARowForWin();
+
+        centreOrder = new int[width];
+        int centre = (width - 1) / 2;
+        int index = 0;
+        centreOrder[index++] = centre;
+        for (int offset = 1; index < width; offset++) {
+            if (centre + offset < width) centreOrder[index++] = centre + offset;
+            if (centre - offset >= 0 && index < width) centreOrder[index++] = centre - offset;
+        }
+
+        columnBonus = new int[width];
+        positionWeights = new int[width][height];
+        for (int col = 0; col < width; col++) {
+            int columnWeight = weights.columnWeights[Math.min(col, weights.columnWeights.length - 1)];
+            columnBonus[col] = columnWeight * CENTER_BONUS;
+            for (int row = 0; row < height; row++) {
+                positionWeights[col][row] = weights.positionWeight(col, row, width, height);
+            }
+        }
+
+        Random random = new Random(ZOBRIST_SEED);
+        zobristKeys = new long[width][height][2];
+        for (int col = 0; col < width; col++) {
+            for (int row = 0; row < height; row++) {
+                zobristKeys[col][row][0] = random.nextLong();
+                zobristKeys[col][row][1] = random.nextLong();
+            }
+        }
+        zobristSideKey = random.nextLong();
+
+        List<int[]> columns = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+        for (int col = 0; col < width; col++) {
+            for (int row = 0; row < height; row++) {
+                for (int[] direction : directions) {
+                    int endCol = col + (LINE_LENGTH - 1) * direction[0];
+                    int endRow = row + (LINE_LENGTH - 1) * direction[1];
+                    if (endCol < 0 || endCol >= width || endRow < 0 || endRow >= height) continue;
+
+                    int[] lineColumn = new int[LINE_LENGTH];
+                    int[] lineRow = new int[LINE_LENGTH];
+                    for (int i = 0; i < LINE_LENGTH; i++) {
+                        lineColumn[i] = col + i * direction[0];
+                        lineRow[i] = row + i * direction[1];
+                    }
+                    columns.add(lineColumn);
+                    rows.add(lineRow);
+                }
+            }
+        }
+        lineColumns = columns.toArray(new int[0][]);
+        lineRows = rows.toArray(new int[0][]);
+    }
+
+    static ConfigTables forConfig(GameConfig config) {
+        String key = config.getWidth() + "x" + config.getHeight() + "x" + config.getnInARowForWin();
+        return CACHE.computeIfAbsent(key, k -> new ConfigTables(config, StackOverFour.WEIGHTS));
+    }
+
+    boolean matches(GameConfig config) {
+        return width == config.getWidth() && height == config.getHeight() &&
+                nInARow == config.getnInARowForWin();
+    }
+}
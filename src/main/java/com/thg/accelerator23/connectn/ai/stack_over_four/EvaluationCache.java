@@ -0,0 +1,65 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed-size, lock-free cache of static evaluations keyed by position hash.
+// Each slot packs the upper 32 bits of the key with the 32-bit score into one long,
+// so a reader sees either a whole entry or none of it and never needs a lock.
+class EvaluationCache {
+    static final int MISS = Integer.MIN_VALUE;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] slots;
+    private final int mask;
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    EvaluationCache(int sizeBits) {
+        this.slots = new long[1 << sizeBits];
+        this.mask = slots.length - 1;
+    }
+
+    int probe(long key) {
+        probes.increment();
+        long slot = (long) SLOTS.getOpaque(slots, index(key));
+        if ((int) (slot >>> 32) != check(key)) return MISS;
+
+        hits.increment();
+        return (int) slot;
+    }
+
+    void store(long key, int score) {
+        if (score == MISS) return;
+        SLOTS.setOpaque(slots, index(key), ((long) check(key) << 32) | (score & 0xFFFFFFFFL));
+    }
+
+    void clear() {
+        Arrays.fill(slots, 0L);
+        probes.reset();
+        hits.reset();
+    }
+
+    long getProbes() {
+        return probes.sum();
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    double getHitRate() {
+        long total = probes.sum();
+        return total == 0 ? 0.0 : (double) hits.sum() / total;
+    }
+
+    private int index(long key) {
+        return (int) key & mask;
+    }
+
+    private static int check(long key) {
+        return (int) (key >>> 32);
+    }
+}
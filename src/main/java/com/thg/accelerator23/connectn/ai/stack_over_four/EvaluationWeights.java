@@ -0,0 +1,117 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+// Evaluation weights used by StackOverFour.evaluatePosition. Loaded once from the
+// weights resource written by WeightTuner, falling back to the hand-picked defaults.
+// Cell weights, when present, are tuned per-cell position values in evaluation units and
+// replace the column x row product for a board of their size; column weights still
+// drive the move-ordering centre bonus.
+class EvaluationWeights {
+    static final String RESOURCE = "/stack-over-four-weights.properties";
+
+    private static final int[] DEFAULT_COLUMN_WEIGHTS = {1, 2, 4, 8, 16, 16, 8, 4, 2, 1};
+    private static final int[] DEFAULT_ROW_WEIGHTS = {1, 2, 3, 4, 4, 3, 2, 1};
+    private static final int DEFAULT_UNBLOCKED_THREE = 5000;
+    private static final int DEFAULT_BLOCKED_THREE = 100;
+    private static final int DEFAULT_TWO_IN_A_ROW_OPEN = 50;
+
+    final int[] columnWeights;
+    final int[] rowWeights;
+    final int unblockedThree;
+    final int blockedThree;
+    final int twoInARowOpen;
+    final int[] cellWeights;
+    final int cellWidth;
+    final int cellHeight;
+
+    EvaluationWeights(int[] columnWeights, int[] rowWeights, int unblockedThree, int blockedThree, int twoInARowOpen) {
+        this(columnWeights, rowWeights, unblockedThree, blockedThree, twoInARowOpen, null, 0, 0);
+    }
+
+    EvaluationWeights(int[] columnWeights, int[] rowWeights, int unblockedThree, int blockedThree, int twoInARowOpen,
+                      int[] cellWeights, int cellWidth, int cellHeight) {
+        this.columnWeights = columnWeights;
+        this.rowWeights = rowWeights;
+        this.unblockedThree = unblockedThree;
+        this.blockedThree = blockedThree;
+        this.twoInARowOpen = twoInARowOpen;
+        this.cellWeights = cellWeights;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+    }
+
+    // Position value of a cell in evaluation units
+    int positionWeight(int col, int row, int width, int height) {
+        if (cellWeights != null && cellWidth == width && cellHeight == height) {
+            return cellWeights[col * height + row];
+        }
+        int columnWeight = columnWeights[Math.min(col, columnWeights.length - 1)];
+        int rowWeight = rowWeights[Math.min(row, rowWeights.length - 1)];
+        return columnWeight * rowWeight * ConfigTables.POSITION_VALUE_SCALE;
+    }
+
+    static EvaluationWeights defaults() {
+        return new EvaluationWeights(DEFAULT_COLUMN_WEIGHTS.clone(), DEFAULT_ROW_WEIGHTS.clone(),
+                DEFAULT_UNBLOCKED_THREE, DEFAULT_BLOCKED_THREE, DEFAULT_TWO_IN_A_ROW_OPEN);
+    }
+
+    static EvaluationWeights load() {
+        try (InputStream in = EvaluationWeights.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) return defaults();
+            return read(in);
+        } catch (Exception e) {
+            return defaults();
+        }
+    }
+
+    static EvaluationWeights read(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+        int[] cellWeights = null;
+        int cellWidth = 0;
+        int cellHeight = 0;
+        if (properties.getProperty("cell.weights") != null) {
+            String[] size = properties.getProperty("cell.size").trim().split("x");
+            cellWidth = Integer.parseInt(size[0]);
+            cellHeight = Integer.parseInt(size[1]);
+            cellWeights = parseArray(properties.getProperty("cell.weights"));
+            if (cellWeights.length != cellWidth * cellHeight) {
+                throw new IOException("cell.weights has " + cellWeights.length + " values for " + cellWidth + "x" + cellHeight);
+            }
+        }
+        return new EvaluationWeights(
+                parseArray(properties.getProperty("column.weights")),
+                parseArray(properties.getProperty("row.weights")),
+                Integer.parseInt(properties.getProperty("unblocked.three").trim()),
+                Integer.parseInt(properties.getProperty("blocked.three").trim()),
+                Integer.parseInt(properties.getProperty("two.in.a.row.open").trim()),
+                cellWeights, cellWidth, cellHeight);
+    }
+
+    void write(OutputStream out, String comment) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("column.weights", formatArray(columnWeights));
+        properties.setProperty("row.weights", formatArray(rowWeights));
+        properties.setProperty("unblocked.three", Integer.toString(unblockedThree));
+        properties.setProperty("blocked.three", Integer.toString(blockedThree));
+        properties.setProperty("two.in.a.row.open", Integer.toString(twoInARowOpen));
+        if (cellWeights != null) {
+            properties.setProperty("cell.size", cellWidth + "x" + cellHeight);
+            properties.setProperty("cell.weights", formatArray(cellWeights));
+        }
+        properties.store(out, comment);
+    }
+
+    private static int[] parseArray(String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+
+    private static String formatArray(int[] values) {
+        return Arrays.stream(values).mapToObj(Integer::toString).collect(Collectors.joining(","));
+    }
+}
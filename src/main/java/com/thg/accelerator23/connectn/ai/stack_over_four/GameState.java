@@ -0,0 +1,121 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import com.thehutgroup.accelerator.connectn.player.Board;
+import com.thehutgroup.accelerator.connectn.player.Counter;
+import com.thehutgroup.accelerator.connectn.player.Position;
+
+// The engine's own copy of the position: column heights, Zobrist key, piece count and the
+// positional part of the evaluation, all updated move by move. Between makeMove calls it
+// holds the position we last returned, so sync only has to find the opponent's reply.
+// The search plays and undoes moves on it alongside the Board objects it creates.
+class GameState {
+    private final ConfigTables tables;
+    private final Counter[] cells;
+    private final int[] heights;
+    private boolean initialised;
+    private long key;
+    private int pieceCount;
+    private int positional;
+    private int lastMove = -1;
+
+    GameState(ConfigTables tables) {
+        this.tables = tables;
+        this.cells = new Counter[tables.width * tables.height];
+        this.heights = new int[tables.width];
+    }
+
+    // Brings the state up to date with board. Every counter the state holds is checked
+    // against the board: if they all match and exactly one column gained exactly one
+    // counter the state is updated incrementally, an unchanged board is a no-op, and
+    // anything else falls back to a full rebuild. Returns false when a rebuild was needed.
+    boolean sync(Board board) {
+        lastMove = -1;
+        if (!initialised || !tables.matches(board.getConfig())) {
+            rebuild(board);
+            return false;
+        }
+
+        int changed = -1;
+        for (int col = 0; col < tables.width; col++) {
+            int height = heights[col];
+            for (int row = 0; row < height; row++) {
+                if (board.getCounterAtPosition(new Position(col, row)) != cells[index(col, row)]) {
+                    rebuild(board);
+                    return false;
+                }
+            }
+            if (height < tables.height && board.hasCounterAtPosition(new Position(col, height))) {
+                boolean stacked = height + 1 < tables.height && board.hasCounterAtPosition(new Position(col, height + 1));
+                if (changed != -1 || stacked) {
+                    rebuild(board);
+                    return false;
+                }
+                changed = col;
+            }
+        }
+
+        if (changed != -1) {
+            play(changed, board.getCounterAtPosition(new Position(changed, heights[changed])));
+            lastMove = changed;
+        }
+        return true;
+    }
+
+    void rebuild(Board board) {
+        key = 0L;
+        pieceCount = 0;
+        positional = 0;
+        for (int col = 0; col < tables.width; col++) {
+            heights[col] = 0;
+            for (int row = 0; row < tables.height; row++) {
+                cells[index(col, row)] = null;
+            }
+            for (int row = 0; row < tables.height; row++) {
+                Counter counter = board.getCounterAtPosition(new Position(col, row));
+                if (counter == null) break;
+                play(col, counter);
+            }
+        }
+        initialised = true;
+    }
+
+    // Returns the row the counter landed on
+    int play(int col, Counter counter) {
+        int row = heights[col]++;
+        cells[index(col, row)] = counter;
+        key ^= tables.zobristKeys[col][row][counter == Counter.O ? 0 : 1];
+        positional += counter == Counter.O ? tables.positionWeights[col][row] : -tables.positionWeights[col][row];
+        pieceCount++;
+        return row;
+    }
+
+    void undo(int col) {
+        int row = --heights[col];
+        Counter counter = cells[index(col, row)];
+        cells[index(col, row)] = null;
+        key ^= tables.zobristKeys[col][row][counter == Counter.O ? 0 : 1];
+        positional -= counter == Counter.O ? tables.positionWeights[col][row] : -tables.positionWeights[col][row];
+        pieceCount--;
+    }
+
+    // Same value as hashing the board from scratch with toMove to play
+    long key(Counter toMove) {
+        return toMove == Counter.X ? key ^ tables.zobristSideKey : key;
+    }
+
+    int positional(Counter player) {
+        return player == Counter.O ? positional : -positional;
+    }
+
+    int pieceCount() {
+        return pieceCount;
+    }
+
+    // Column the opponent played since the last sync, or -1 after a rebuild or no change
+    int lastMove() {
+        return lastMove;
+    }
+
+    private int index(int col, int row) {
+        return col * tables.height + row;
+    }
+}
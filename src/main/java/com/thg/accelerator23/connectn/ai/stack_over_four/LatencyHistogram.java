@@ -0,0 +1,44 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Millisecond-resolution latency histogram, safe to record into from many threads.
+// Values above the tracked range land in the last bucket but still update the exact max.
+class LatencyHistogram {
+    private final AtomicLongArray counts;
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    LatencyHistogram(long maxTrackedMs) {
+        this.counts = new AtomicLongArray((int) maxTrackedMs + 1);
+    }
+
+    void record(long latencyMs) {
+        int bucket = (int) Math.min(Math.max(latencyMs, 0), counts.length() - 1);
+        counts.incrementAndGet(bucket);
+        total.incrementAndGet();
+        max.accumulateAndGet(latencyMs, Math::max);
+    }
+
+    long count() {
+        return total.get();
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    // Smallest latency at or below which the given fraction of samples fall
+    long percentile(double fraction) {
+        long samples = total.get();
+        if (samples == 0) return 0;
+
+        long rank = (long) Math.ceil(fraction * samples);
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length(); bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) return bucket == counts.length() - 1 ? max.get() : bucket;
+        }
+        return max.get();
+    }
+}
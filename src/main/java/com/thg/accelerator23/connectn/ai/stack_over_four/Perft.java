@@ -0,0 +1,179 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import com.thehutgroup.accelerator.connectn.player.Board;
+import com.thehutgroup.accelerator.connectn.player.Counter;
+import com.thehutgroup.accelerator.connectn.player.GameConfig;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Perft-style tree walk over the engine's own move and win logic (isValidMove,
+// findLastRow, checkWinFromPosition). Counts are checked against known-good values,
+// so any change to the position representation can be validated and benchmarked here.
+// Usage: java -cp <jar> com.thg.accelerator23.connectn.ai.stack_over_four.Perft [--parallel]
+public class Perft {
+
+    static class Counts {
+        long leaves;
+        long wins;
+        long draws;
+        long visited;
+
+        void add(Counts other) {
+            leaves += other.leaves;
+            wins += other.wins;
+            draws += other.draws;
+            visited += other.visited;
+        }
+
+        boolean matches(long leaves, long wins, long draws) {
+            return this.leaves == leaves && this.wins == wins && this.draws == draws;
+        }
+    }
+
+    static class PerftCase {
+        final String name;
+        final GameConfig config;
+        final int[] moves;
+        final int depth;
+        final long leaves;
+        final long wins;
+        final long draws;
+
+        PerftCase(String name, GameConfig config, int[] moves, int depth, long leaves, long wins, long draws) {
+            this.name = name;
+            this.config = config;
+            this.moves = moves;
+            this.depth = depth;
+            this.leaves = leaves;
+            this.wins = wins;
+            this.draws = draws;
+        }
+    }
+
+    // Positions are move lists starting with O. A win or a full board ends the line;
+    // leaves are the non-terminal positions reached at exactly the given depth.
+    static final PerftCase[] CASES = {
+            new PerftCase("10x8 empty", new GameConfig(10, 8, 4), new int[]{}, 5, 100_000, 0, 0),
+            new PerftCase("10x8 midgame", new GameConfig(10, 8, 4), new int[]{4, 4, 5, 5, 3, 6, 4}, 4, 8_218, 738, 0),
+            new PerftCase("7x6 empty", new GameConfig(7, 6, 4), new int[]{}, 7, 810_504, 13_032, 0),
+            new PerftCase("7x6 midgame", new GameConfig(7, 6, 4), new int[]{3, 3, 2, 4, 3, 2, 4}, 5, 16_165, 147, 0),
+            new PerftCase("4x4 endgame", new GameConfig(4, 4, 4), new int[]{0, 1, 2, 3, 1, 0, 3, 2, 0, 1}, 6, 0, 57, 80)
+    };
+
+    private final StackOverFour engine;
+
+    Perft() {
+        this.engine = new StackOverFour(Counter.O);
+    }
+
+    Counts run(PerftCase perftCase) {
+        return count(setUp(perftCase), sideToMove(perftCase), perftCase.depth);
+    }
+
+    Counts runParallel(PerftCase perftCase, ForkJoinPool pool) {
+        Board board = setUp(perftCase);
+        Counter player = sideToMove(perftCase);
+
+        List<RecursiveTask<Counts>> tasks = new ArrayList<>();
+        Counts total = new Counts();
+        total.visited = 1;
+        for (int col = 0; col < board.getConfig().getWidth(); col++) {
+            if (!engine.isValidMove(board, col)) continue;
+            int rootMove = col;
+            tasks.add(new RecursiveTask<>() {
+                @Override
+                protected Counts compute() {
+                    return countMove(board, rootMove, player, perftCase.depth);
+                }
+            });
+        }
+
+        for (RecursiveTask<Counts> task : tasks) pool.execute(task);
+        for (RecursiveTask<Counts> task : tasks) total.add(task.join());
+        return total;
+    }
+
+    private Counts count(Board board, Counter player, int depth) {
+        Counts counts = new Counts();
+        counts.visited = 1;
+        for (int col = 0; col < board.getConfig().getWidth(); col++) {
+            if (!engine.isValidMove(board, col)) continue;
+            counts.add(countMove(board, col, player, depth));
+        }
+        return counts;
+    }
+
+    private Counts countMove(Board board, int col, Counter player, int depth) {
+        Board nextBoard = play(board, col, player);
+        if (engine.checkWinFromPosition(nextBoard, col, engine.findLastRow(nextBoard, col), player)) {
+            Counts counts = new Counts();
+            counts.visited = 1;
+            counts.wins = 1;
+            return counts;
+        }
+        if (isFull(nextBoard)) {
+            Counts counts = new Counts();
+            counts.visited = 1;
+            counts.draws = 1;
+            return counts;
+        }
+        if (depth == 1) {
+            Counts counts = new Counts();
+            counts.visited = 1;
+            counts.leaves = 1;
+            return counts;
+        }
+        return count(nextBoard, player.getOther(), depth - 1);
+    }
+
+    private boolean isFull(Board board) {
+        for (int col = 0; col < board.getConfig().getWidth(); col++) {
+            if (engine.isValidMove(board, col)) return false;
+        }
+        return true;
+    }
+
+    private Board setUp(PerftCase perftCase) {
+        Board board = new Board(perftCase.config);
+        Counter player = Counter.O;
+        for (int col : perftCase.moves) {
+            board = play(board, col, player);
+            player = player.getOther();
+        }
+        return board;
+    }
+
+    private Counter sideToMove(PerftCase perftCase) {
+        return perftCase.moves.length % 2 == 0 ? Counter.O : Counter.X;
+    }
+
+    private Board play(Board board, int col, Counter player) {
+        try {
+            return new Board(board, col, player);
+        } catch (Exception e) {
+            throw new IllegalStateException("Move " + col + " rejected by board but accepted by isValidMove", e);
+        }
+    }
+
+    public static void main(String[] args) {
+        boolean parallel = args.length > 0 && args[0].equals("--parallel");
+        Perft perft = new Perft();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        boolean allPassed = true;
+
+        for (PerftCase perftCase : CASES) {
+            long start = System.nanoTime();
+            Counts counts = parallel ? perft.runParallel(perftCase, pool) : perft.run(perftCase);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            boolean passed = counts.matches(perftCase.leaves, perftCase.wins, perftCase.draws);
+            allPassed &= passed;
+            System.out.printf("%-14s depth %d  leaves %,d  wins %,d  draws %,d  %,.0f pos/s  %s%n",
+                    perftCase.name, perftCase.depth, counts.leaves, counts.wins, counts.draws,
+                    counts.visited / seconds, passed ? "OK" : "MISMATCH");
+        }
+
+        if (!allPassed) System.exit(1);
+    }
+}
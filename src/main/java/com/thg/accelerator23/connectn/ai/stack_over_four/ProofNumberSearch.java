@@ -0,0 +1,286 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import com.thehutgroup.accelerator.connectn.player.Board;
+import com.thehutgroup.accelerator.connectn.player.Counter;
+import com.thehutgroup.accelerator.connectn.player.Position;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Proof-number search for forced wins. Proves or disproves that the attacker can force a
+// win within MAX_PLIES of the root, whichever side is to move. Lines that reach the horizon
+// or fill the board count as not won, so a proof is a real forced win and a disproof only
+// means none was found within the horizon.
+//
+// Nodes come from a fixed pool allocated once (-Dstackoverfour.pns.nodes, default 2^20,
+// about 14 bytes per node), so memory never grows; the search gives up when the pool is
+// full. It works on its own compact grid rather than Board objects to keep expansion cheap.
+//
+// Searchers are shared by every engine in the JVM through acquire/release, and no more are
+// ever created than fit in -Dstackoverfour.pns.total.mb (default 64). An engine that finds
+// none idle skips the proof search for that move.
+class ProofNumberSearch {
+    static final int UNKNOWN = 0;
+    static final int PROVEN = 1;
+    static final int DISPROVEN = 2;
+
+    static final int MAX_PLIES = 16;
+    private static final int DEFAULT_NODES = Integer.getInteger("stackoverfour.pns.nodes", 1 << 20);
+    private static final int BYTES_PER_NODE = 14;
+    private static final long TOTAL_BYTES = Integer.getInteger("stackoverfour.pns.total.mb", 64) * 1024L * 1024L;
+    private static final int POOL_NODES = (int) Math.max(1024, Math.min(DEFAULT_NODES, TOTAL_BYTES / BYTES_PER_NODE));
+    private static final int MAX_SEARCHERS = (int) Math.max(1, TOTAL_BYTES / ((long) POOL_NODES * BYTES_PER_NODE));
+    private static final ConcurrentLinkedQueue<ProofNumberSearch> IDLE = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger created = new AtomicInteger();
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+    private static final int TIME_CHECK_INTERVAL = 256;
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+    // Node pool; the children of a node are allocated contiguously
+    private final int capacity;
+    private final int[] proof;
+    private final int[] disproof;
+    private final int[] firstChild;
+    private final byte[] childCount;
+    private final byte[] moves;
+    private int size;
+
+    // Current position: 0 empty, 1 attacker, 2 defender; cell index is col * height + row
+    private int width;
+    private int height;
+    private int nInARow;
+    private byte[] cells = new byte[0];
+    private int[] heights = new int[0];
+    private int[] order = new int[0];
+    private int[] path = new int[MAX_PLIES + 1];
+    private int[] playedColumns = new int[MAX_PLIES + 1];
+
+    // An idle shared searcher, or null when the JVM-wide budget is all in use
+    static ProofNumberSearch acquire() {
+        ProofNumberSearch search = IDLE.poll();
+        if (search != null) return search;
+
+        int count = created.get();
+        while (count < MAX_SEARCHERS) {
+            if (created.compareAndSet(count, count + 1)) return new ProofNumberSearch(POOL_NODES);
+            count = created.get();
+        }
+        return IDLE.poll();
+    }
+
+    static void release(ProofNumberSearch search) {
+        IDLE.add(search);
+    }
+
+    static int maxSearchers() {
+        return MAX_SEARCHERS;
+    }
+
+    ProofNumberSearch(int capacity) {
+        this.capacity = capacity;
+        this.proof = new int[capacity];
+        this.disproof = new int[capacity];
+        this.firstChild = new int[capacity];
+        this.childCount = new byte[capacity];
+        this.moves = new byte[capacity];
+    }
+
+    // Searches for a forced win by attacker in the given position with toMove to play.
+    // Returns PROVEN, DISPROVEN or UNKNOWN when the deadline or node pool ran out.
+    int search(Board board, int[] columnOrder, Counter attacker, Counter toMove, long deadline) {
+        load(board, columnOrder, attacker);
+        size = 0;
+        int root = allocate(-1, 1, 1);
+        boolean rootAttacker = toMove == attacker;
+
+        for (int iteration = 0; proof[root] != 0 && disproof[root] != 0; iteration++) {
+            if (iteration % TIME_CHECK_INTERVAL == 0 && System.currentTimeMillis() > deadline) break;
+            if (size + width > capacity) break;
+
+            // Descend to the most-proving node, playing its moves on the grid
+            int node = root;
+            int ply = 0;
+            path[0] = root;
+            while (childCount[node] > 0) {
+                node = selectChild(node, rootAttacker == (ply % 2 == 0));
+                playedColumns[ply] = moves[node];
+                play(moves[node], rootAttacker == (ply % 2 == 0));
+                path[++ply] = node;
+            }
+
+            expand(node, ply, rootAttacker == (ply % 2 == 0));
+
+            for (int i = ply; i >= 0; i--) {
+                update(path[i], rootAttacker == (i % 2 == 0));
+            }
+            for (int i = ply - 1; i >= 0; i--) {
+                undo(playedColumns[i]);
+            }
+        }
+
+        if (proof[root] == 0) return PROVEN;
+        if (disproof[root] == 0) return DISPROVEN;
+        return UNKNOWN;
+    }
+
+    // Root moves that were proven to win for the attacker, indexed by column
+    boolean[] provenRootMoves() {
+        boolean[] proven = new boolean[width];
+        if (size == 0) return proven;
+        for (int child = firstChild[0]; child < firstChild[0] + childCount[0]; child++) {
+            if (proof[child] == 0) proven[moves[child]] = true;
+        }
+        return proven;
+    }
+
+    // A proven winning root move, or -1
+    int provenRootMove() {
+        boolean[] proven = provenRootMoves();
+        for (int col : order) {
+            if (proven[col]) return col;
+        }
+        return -1;
+    }
+
+    int getNodeCount() {
+        return size;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    private void load(Board board, int[] columnOrder, Counter attacker) {
+        width = board.getConfig().getWidth();
+        height = board.getConfig().getHeight();
+        nInARow = board.getConfig().getnInARowForWin();
+        if (cells.length != width * height) {
+            cells = new byte[width * height];
+            heights = new int[width];
+        }
+        order = columnOrder;
+
+        for (int col = 0; col < width; col++) {
+            heights[col] = 0;
+            for (int row = 0; row < height; row++) {
+                Counter counter = board.getCounterAtPosition(new Position(col, row));
+                cells[col * height + row] = counter == null ? 0 : counter == attacker ? (byte) 1 : (byte) 2;
+                if (counter != null) heights[col] = row + 1;
+            }
+        }
+    }
+
+    private int allocate(int move, int proofNumber, int disproofNumber) {
+        int node = size++;
+        proof[node] = proofNumber;
+        disproof[node] = disproofNumber;
+        firstChild[node] = 0;
+        childCount[node] = 0;
+        moves[node] = (byte) move;
+        return node;
+    }
+
+    private int selectChild(int node, boolean attackerToMove) {
+        int best = firstChild[node];
+        for (int child = best + 1; child < firstChild[node] + childCount[node]; child++) {
+            if (attackerToMove ? proof[child] < proof[best] : disproof[child] < disproof[best]) best = child;
+        }
+        return best;
+    }
+
+    private void expand(int node, int ply, boolean attackerToMove) {
+        byte mover = attackerToMove ? (byte) 1 : (byte) 2;
+        byte other = attackerToMove ? (byte) 2 : (byte) 1;
+
+        // Forced moves: take an immediate win, otherwise block the opponent's
+        int forcedColumn = -1;
+        for (int col : order) {
+            if (heights[col] < height && isWin(col, heights[col], mover)) {
+                forcedColumn = col;
+                break;
+            }
+        }
+        boolean mustBlock = false;
+        if (forcedColumn == -1) {
+            for (int col : order) {
+                if (heights[col] < height && isWin(col, heights[col], other)) {
+                    mustBlock = true;
+                    break;
+                }
+            }
+        }
+
+        firstChild[node] = size;
+        for (int col : order) {
+            if (heights[col] == height) continue;
+            if (forcedColumn != -1 && col != forcedColumn) continue;
+            if (mustBlock && !isWin(col, heights[col], other)) continue;
+
+            boolean won = isWin(col, heights[col], mover);
+            if (won) {
+                allocate(col, attackerToMove ? 0 : INFINITY, attackerToMove ? INFINITY : 0);
+            } else if (ply + 1 >= MAX_PLIES || isFullAfter(col)) {
+                allocate(col, INFINITY, 0);
+            } else {
+                allocate(col, 1, 1);
+            }
+            childCount[node]++;
+        }
+
+        if (childCount[node] == 0) {
+            proof[node] = INFINITY;
+            disproof[node] = 0;
+        }
+    }
+
+    private void update(int node, boolean attackerToMove) {
+        if (childCount[node] == 0) return;
+        int minimum = INFINITY;
+        int sum = 0;
+        for (int child = firstChild[node]; child < firstChild[node] + childCount[node]; child++) {
+            int toMinimise = attackerToMove ? proof[child] : disproof[child];
+            int toSum = attackerToMove ? disproof[child] : proof[child];
+            minimum = Math.min(minimum, toMinimise);
+            sum = Math.min(INFINITY, sum + toSum);
+        }
+        proof[node] = attackerToMove ? minimum : sum;
+        disproof[node] = attackerToMove ? sum : minimum;
+    }
+
+    private void play(int col, boolean attacker) {
+        cells[col * height + heights[col]] = attacker ? (byte) 1 : (byte) 2;
+        heights[col]++;
+    }
+
+    private void undo(int col) {
+        heights[col]--;
+        cells[col * height + heights[col]] = 0;
+    }
+
+    private boolean isFullAfter(int col) {
+        int empty = 0;
+        for (int c = 0; c < width; c++) empty += height - heights[c];
+        return empty == 1 && heights[col] == height - 1;
+    }
+
+    // Would placing side at (col, row) complete a line
+    private boolean isWin(int col, int row, byte side) {
+        for (int[] direction : DIRECTIONS) {
+            int count = 1;
+            count += countRun(col, row, direction[0], direction[1], side);
+            count += countRun(col, row, -direction[0], -direction[1], side);
+            if (count >= nInARow) return true;
+        }
+        return false;
+    }
+
+    private int countRun(int col, int row, int dx, int dy, byte side) {
+        int count = 0;
+        int x = col + dx;
+        int y = row + dy;
+        while (x >= 0 && x < width && y >= 0 && y < height && cells[x * height + y] == side) {
+            count++;
+            x += dx;
+            y += dy;
+        }
+        return count;
+    }
+}
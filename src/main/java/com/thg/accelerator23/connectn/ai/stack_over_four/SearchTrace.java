@@ -0,0 +1,184 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.lang.ref.WeakReference;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+// Binary search trace. Events go into a preallocated ring buffer during the search
+// and are written to the trace file once per move, so the search itself never does I/O.
+//
+// One JVM-wide GC listener fans out to the live traces through weak references, so a
+// trace never outlives its engine; a discarded trace's file is closed by a Cleaner, losing
+// only the events recorded since its last flush.
+class SearchTrace implements AutoCloseable {
+    static final long MAGIC = 0x534F465452414345L; // "SOFTRACE"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 12;
+    static final int RECORD_BYTES = 24;
+
+    // Event types
+    static final int MOVE_START = 1;
+    static final int ITERATION_START = 2;
+    static final int ROOT_MOVE = 3;
+    static final int ITERATION_END = 4;
+    static final int TT_STATS = 5;
+    static final int TIME_CHECK = 6;
+    static final int GC = 7;
+    static final int MOVE_END = 8;
+    static final int DROPPED = 9;
+    static final int EVAL_CACHE_STATS = 10;
+    static final int PROOF_SEARCH = 11;
+
+    private static final int DEFAULT_CAPACITY = 16_384;
+    private static final String GC_NOTIFICATION = "com.sun.management.gc.notification";
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    // Guarded by LIVE_TRACES
+    private static final List<WeakReference<SearchTrace>> LIVE_TRACES = new ArrayList<>();
+    private static boolean gcListenerRegistered;
+
+    private final FileChannel channel;
+    private final Cleaner.Cleanable cleanable;
+    private final ByteBuffer ring;
+    private final ByteBuffer dropped;
+    private final int capacity;
+    private long recorded;
+
+    SearchTrace(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    SearchTrace(Path file, int capacity) throws IOException {
+        this.capacity = capacity;
+        this.ring = ByteBuffer.allocateDirect(capacity * RECORD_BYTES);
+        this.dropped = ByteBuffer.allocateDirect(RECORD_BYTES);
+        FileChannel openChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.channel = openChannel;
+        // Must not capture this, or the trace could never become unreachable
+        this.cleanable = CLEANER.register(this, () -> closeQuietly(openChannel));
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putLong(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) channel.write(header);
+
+        register(this);
+    }
+
+    private static void register(SearchTrace trace) {
+        synchronized (LIVE_TRACES) {
+            if (!gcListenerRegistered) {
+                NotificationListener listener = SearchTrace::onGcNotification;
+                for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                    if (gcBean instanceof NotificationEmitter) {
+                        ((NotificationEmitter) gcBean).addNotificationListener(listener, null, null);
+                    }
+                }
+                gcListenerRegistered = true;
+            }
+            LIVE_TRACES.add(new WeakReference<>(trace));
+        }
+    }
+
+    private static void unregister(SearchTrace trace) {
+        synchronized (LIVE_TRACES) {
+            LIVE_TRACES.removeIf(reference -> reference.get() == null || reference.get() == trace);
+        }
+    }
+
+    // Traces still receiving GC events
+    static int liveTraces() {
+        synchronized (LIVE_TRACES) {
+            LIVE_TRACES.removeIf(reference -> reference.get() == null);
+            return LIVE_TRACES.size();
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing left to do with a trace nobody holds
+        }
+    }
+
+    synchronized void record(int type, int arg0, long arg1) {
+        int offset = (int) (recorded % capacity) * RECORD_BYTES;
+        ring.putLong(offset, System.nanoTime());
+        ring.putInt(offset + 8, type);
+        ring.putInt(offset + 12, arg0);
+        ring.putLong(offset + 16, arg1);
+        recorded++;
+    }
+
+    synchronized void flush() throws IOException {
+        if (recorded == 0) return;
+
+        if (recorded > capacity) {
+            // Oldest surviving event sits at the write index
+            int oldest = (int) (recorded % capacity) * RECORD_BYTES;
+
+            dropped.clear();
+            dropped.putLong(ring.getLong(oldest)).putInt(DROPPED).putInt(0).putLong(recorded - capacity).flip();
+            while (dropped.hasRemaining()) channel.write(dropped);
+
+            writeRange(oldest, capacity * RECORD_BYTES);
+            writeRange(0, oldest);
+        } else {
+            writeRange(0, (int) recorded * RECORD_BYTES);
+        }
+        recorded = 0;
+    }
+
+    private void writeRange(int from, int to) throws IOException {
+        ByteBuffer slice = ring.duplicate();
+        slice.limit(to).position(from);
+        while (slice.hasRemaining()) channel.write(slice);
+    }
+
+    private static void onGcNotification(Notification notification, Object handback) {
+        if (!GC_NOTIFICATION.equals(notification.getType())) return;
+
+        long durationMs = 0;
+        try {
+            CompositeData gcInfo = (CompositeData) ((CompositeData) notification.getUserData()).get("gcInfo");
+            durationMs = (Long) gcInfo.get("duration");
+        } catch (Exception e) {
+            // Unknown notification layout; still record that a collection happened
+        }
+
+        synchronized (LIVE_TRACES) {
+            Iterator<WeakReference<SearchTrace>> traces = LIVE_TRACES.iterator();
+            while (traces.hasNext()) {
+                SearchTrace trace = traces.next().get();
+                if (trace == null) {
+                    traces.remove();
+                } else {
+                    trace.record(GC, 0, durationMs);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        unregister(this);
+        try {
+            flush();
+        } finally {
+            cleanable.clean();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Offline decoder for SearchTrace files.
+// Usage: java -cp <jar> com.thg.accelerator23.connectn.ai.stack_over_four.SearchTraceDecoder <trace-file>
+public class SearchTraceDecoder {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: SearchTraceDecoder <trace-file>");
+            System.exit(1);
+        }
+        decode(Paths.get(args[0]), System.out);
+    }
+
+    static void decode(Path file, PrintStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SearchTrace.HEADER_BYTES);
+            readFully(channel, header);
+            if (header.getLong() != SearchTrace.MAGIC) {
+                throw new IOException("Not a search trace: " + file);
+            }
+            int version = header.getInt();
+            if (version != SearchTrace.VERSION) {
+                throw new IOException("Unsupported trace version " + version);
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(SearchTrace.RECORD_BYTES);
+            long firstTime = -1;
+            while (readFully(channel, record)) {
+                long time = record.getLong();
+                int type = record.getInt();
+                int arg0 = record.getInt();
+                long arg1 = record.getLong();
+                if (firstTime < 0) firstTime = time;
+
+                out.printf("%10.3f ms  %s%n", (time - firstTime) / 1_000_000.0, describe(type, arg0, arg1));
+            }
+        }
+    }
+
+    private static String describe(int type, int arg0, long arg1) {
+        switch (type) {
+            case SearchTrace.MOVE_START:
+                return "MOVE_START      pieces=" + arg0 + " usedMemoryMB=" + arg1;
+            case SearchTrace.ITERATION_START:
+                return "ITERATION_START depth=" + arg0;
+            case SearchTrace.ROOT_MOVE:
+                return "ROOT_MOVE       depth=" + (arg0 >>> 16) + " col=" + (arg0 & 0xFFFF) + " score=" + arg1;
+            case SearchTrace.ITERATION_END:
+                return "ITERATION_END   depth=" + (arg0 >>> 16) + " best=" + (arg0 & 0xFFFF) + " nodes=" + arg1;
+            case SearchTrace.TT_STATS:
+                return "TT_STATS        size=" + arg0 + " probes=" + (arg1 >>> 32) + " hits=" + (arg1 & 0xFFFFFFFFL);
+            case SearchTrace.TIME_CHECK:
+                return "TIME_CHECK      depth=" + arg0 + " elapsedMs=" + arg1;
+            case SearchTrace.GC:
+                return "GC              durationMs=" + arg1;
+            case SearchTrace.MOVE_END:
+                return "MOVE_END        col=" + arg0 + " elapsedMs=" + arg1;
+            case SearchTrace.DROPPED:
+                return "DROPPED         events=" + arg1;
+            case SearchTrace.EVAL_CACHE_STATS:
+                return "EVAL_CACHE      hitRate=" + (arg0 / 100.0) + "% hits=" + arg1;
+            case SearchTrace.PROOF_SEARCH:
+                return "PROOF_SEARCH    attacker=" + ((arg0 >>> 24) == 0 ? "O" : "X") + " result=" +
+                        new String[]{"UNKNOWN", "PROVEN", "DISPROVEN"}[(arg0 >>> 16) & 0xFF] +
+                        " provenMoves=" + (arg0 & 0xFFFF) + " nodes=" + arg1;
+            default:
+                return "UNKNOWN(" + type + ") " + arg0 + " " + arg1;
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) return false;
+        }
+        buffer.flip();
+        return true;
+    }
+}
@@ -0,0 +1,204 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import com.thehutgroup.accelerator.connectn.player.Board;
+import com.thehutgroup.accelerator.connectn.player.Counter;
+import com.thehutgroup.accelerator.connectn.player.GameConfig;
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+// Latency soak harness for the competition limits: a move over 10 s or a heap over 2 GB
+// forfeits the game. Plays engine-vs-engine games, several at once in one JVM, and
+// records makeMove wall time, peak heap and GC pauses. The run fails if any move or the
+// heap comes within the configured margin of a limit, or if a foul move is played.
+//
+// Usage: SoakHarness [--threads N] [--games N] [--margin-ms N] [--heap-margin-mb N]
+//        SoakHarness --all-gcs [options]   re-runs itself with -Xmx2g under G1, ZGC and Parallel GC
+public class SoakHarness {
+    static final long MOVE_LIMIT_MS = 10_000;
+    static final long HEAP_LIMIT_MB = 2048;
+    private static final String[] GC_FLAGS = {"-XX:+UseG1GC", "-XX:+UseZGC", "-XX:+UseParallelGC"};
+    private static final String GC_NOTIFICATION = "com.sun.management.gc.notification";
+
+    private final GameConfig config = new GameConfig(10, 8, 4);
+    private final int threads;
+    private final int gamesPerThread;
+    private final long marginMs;
+    private final long heapMarginMB;
+
+    private final LatencyHistogram moveLatency = new LatencyHistogram(MOVE_LIMIT_MS * 2);
+    private final LatencyHistogram gcPauses = new LatencyHistogram(MOVE_LIMIT_MS);
+    private final AtomicLong slowMoves = new AtomicLong();
+    private final AtomicLong fouls = new AtomicLong();
+    private final AtomicLong gamesPlayed = new AtomicLong();
+
+    SoakHarness(int threads, int gamesPerThread, long marginMs, long heapMarginMB) {
+        this.threads = threads;
+        this.gamesPerThread = gamesPerThread;
+        this.marginMs = marginMs;
+        this.heapMarginMB = heapMarginMB;
+    }
+
+    // Returns true when every move and the peak heap stayed clear of the limits
+    boolean run() throws Exception {
+        NotificationListener gcListener = this::onGcNotification;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter) {
+                ((NotificationEmitter) gcBean).addNotificationListener(gcListener, null, null);
+            }
+        }
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> games = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                games.add(pool.submit(() -> {
+                    for (int game = 0; game < gamesPerThread; game++) playGame();
+                    return null;
+                }));
+            }
+            for (Future<?> game : games) game.get();
+        } finally {
+            pool.shutdownNow();
+            for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gcBean instanceof NotificationEmitter) {
+                    try {
+                        ((NotificationEmitter) gcBean).removeNotificationListener(gcListener);
+                    } catch (Exception e) {
+                        continue;
+                    }
+                }
+            }
+        }
+
+        // Sum of per-pool peaks over-estimates the true peak, which errs on the safe side
+        long peakHeapMB = 0;
+        for (MemoryPoolMXBean heapPool : heapPools) {
+            peakHeapMB += heapPool.getPeakUsage().getUsed() / (1024 * 1024);
+        }
+
+        boolean passed = slowMoves.get() == 0 && fouls.get() == 0 && peakHeapMB < HEAP_LIMIT_MB - heapMarginMB;
+        System.out.printf("gc=%s threads=%d games=%d moves=%d elapsed=%ds%n", gcName(), threads,
+                gamesPlayed.get(), moveLatency.count(), (System.currentTimeMillis() - start) / 1000);
+        System.out.printf("makeMove ms: p50=%d p99=%d p99.9=%d max=%d (limit %d, margin %d)%n",
+                moveLatency.percentile(0.50), moveLatency.percentile(0.99), moveLatency.percentile(0.999),
+                moveLatency.max(), MOVE_LIMIT_MS, marginMs);
+        System.out.printf("gc pauses: count=%d p99=%d max=%d ms%n",
+                gcPauses.count(), gcPauses.percentile(0.99), gcPauses.max());
+        System.out.printf("peak heap: %d MB (limit %d, margin %d)%n", peakHeapMB, HEAP_LIMIT_MB, heapMarginMB);
+        System.out.printf("slow moves=%d fouls=%d -> %s%n", slowMoves.get(), fouls.get(), passed ? "PASS" : "FAIL");
+        return passed;
+    }
+
+    private void playGame() {
+        StackOverFour[] players = {new StackOverFour(Counter.O), new StackOverFour(Counter.X)};
+        Board board = new Board(config);
+
+        for (int ply = 0; ply < config.getWidth() * config.getHeight(); ply++) {
+            StackOverFour player = players[ply % 2];
+            long moveStart = System.nanoTime();
+            int col = player.makeMove(board);
+            long latencyMs = (System.nanoTime() - moveStart) / 1_000_000;
+
+            moveLatency.record(latencyMs);
+            if (latencyMs >= MOVE_LIMIT_MS - marginMs) slowMoves.incrementAndGet();
+
+            if (!player.isValidMove(board, col)) {
+                fouls.incrementAndGet();
+                break;
+            }
+            try {
+                board = new Board(board, col, player.getCounter());
+            } catch (Exception e) {
+                fouls.incrementAndGet();
+                break;
+            }
+            if (player.checkWinFromPosition(board, col, player.findLastRow(board, col), player.getCounter())) break;
+        }
+        gamesPlayed.incrementAndGet();
+    }
+
+    private void onGcNotification(Notification notification, Object handback) {
+        if (!GC_NOTIFICATION.equals(notification.getType())) return;
+        try {
+            CompositeData info = (CompositeData) notification.getUserData();
+            // ZGC reports concurrent cycles separately from its pauses; only pauses stall a move
+            if (String.valueOf(info.get("gcName")).endsWith("Cycles")) return;
+            CompositeData gcInfo = (CompositeData) info.get("gcInfo");
+            gcPauses.record((Long) gcInfo.get("duration"));
+        } catch (Exception e) {
+            // Unknown notification layout; pauses for this collector are not recorded
+        }
+    }
+
+    private static String gcName() {
+        List<String> names = new ArrayList<>();
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            names.add(gcBean.getName());
+        }
+        return String.join("+", names);
+    }
+
+    // Re-runs this harness in a fresh -Xmx2g JVM per collector
+    private static boolean runAllCollectors(List<String> options) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        boolean passed = true;
+        for (String gcFlag : GC_FLAGS) {
+            List<String> command = new ArrayList<>(List.of(java, "-Xmx" + HEAP_LIMIT_MB + "m", gcFlag,
+                    "-cp", System.getProperty("java.class.path"), SoakHarness.class.getName()));
+            command.addAll(options);
+            System.out.println("== " + String.join(" ", command.subList(1, 3)));
+            Process process = new ProcessBuilder(command).inheritIO().start();
+            passed &= process.waitFor() == 0;
+        }
+        return passed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = 4;
+        int games = 5;
+        long marginMs = 1000;
+        long heapMarginMB = 256;
+        boolean allGcs = false;
+        List<String> forwarded = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--all-gcs": allGcs = true; continue;
+                case "--threads": threads = Integer.parseInt(args[i + 1]); break;
+                case "--games": games = Integer.parseInt(args[i + 1]); break;
+                case "--margin-ms": marginMs = Long.parseLong(args[i + 1]); break;
+                case "--heap-margin-mb": heapMarginMB = Long.parseLong(args[i + 1]); break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(1);
+            }
+            forwarded.add(args[i]);
+            forwarded.add(args[++i]);
+        }
+
+        boolean passed = allGcs
+                ? runAllCollectors(forwarded)
+                : new SoakHarness(threads, games, marginMs, heapMarginMB).run();
+        System.exit(passed ? 0 : 1);
+    }
+}
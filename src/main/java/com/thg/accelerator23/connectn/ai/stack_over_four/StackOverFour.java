@@ -1,12 +1,16 @@
 package com.thg.accelerator23.connectn.ai.stack_over_four;
 import com.thehutgroup.accelerator.connectn.player.Board;
 import com.thehutgroup.accelerator.connectn.player.Counter;
+import com.thehutgroup.accelerator.connectn.player.GameConfig;
 import com.thehutgroup.accelerator.connectn.player.Player;
 import com.thehutgroup.accelerator.connectn.player.Position;
+import java.nio.file.Paths;
 import java.util.*;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 public class StackOverFour extends Player {
     // Constants
@@ -15,37 +19,82 @@ public class StackOverFour extends Player {
     private static final long SAFETY_BUFFER_MS = 1500;
     private static final int THREAT_SCORE = 10000;
     private static final int WINNING_SCORE = Integer.MAX_VALUE - 1;
-    private static final int[] COLUMN_WEIGHTS = {1, 2, 4, 8, 16, 16, 8, 4, 2, 1};
-    private static final int[] ROW_WEIGHTS = {1, 2, 3, 4, 4, 3, 2, 1};
-    private static final int CENTER_BONUS = 2000;
-    private static final int POSITION_VALUE_SCALE = 100;
+    static final EvaluationWeights WEIGHTS = EvaluationWeights.load();
 
     // Pattern recognition scores
     private static final int FOUR_IN_A_ROW = 100000;
     private static final int THREE_IN_A_ROW_OPEN = 5000;
     private static final int THREE_IN_A_ROW_BLOCKED = 100;
-    private static final int TWO_IN_A_ROW_OPEN = 50;
-    private static final int UNBLOCKED_THREE = 5000;
-    private static final int BLOCKED_THREE = 100;
+
+    // Threat categories from classifyDirectionalThreat
+    static final int NO_THREAT = -1;
+    static final int UNBLOCKED_THREE_THREAT = 0;
+    static final int BLOCKED_THREE_THREAT = 1;
+    static final int OPEN_TWO_THREAT = 2;
 
     private static final Runtime runtime = Runtime.getRuntime();
 
     // Memory management
-    private static final int TRANSPOSITION_TABLE_SIZE = 400_000;
-    private static final int MEMORY_THRESHOLD_MB = 1500;
+    private static final int TRANSPOSITION_TABLE_BITS = 19;
     private static final int CRITICAL_MEMORY_MB = 1800;
     private static final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
 
+    // Warm-up
+    private static final GameConfig COMPETITION_CONFIG = new GameConfig(10, 8, 4);
+    static final long WARMUP_TIME_LIMIT_MS = 400;
+    private static final int[][] WARMUP_POSITIONS = {
+            {4, 5},
+            {4, 4, 5, 3},
+            {4, 5, 4, 5, 3, 6},
+            {4, 4, 4, 5, 3, 5, 6, 2}
+    };
+    private static final AtomicBoolean warmedUp = new AtomicBoolean(false);
+
     // Search tracking
-    private static final AtomicLong nodeCount = new AtomicLong(0);
+    private long nodeCount;
     private int currentMaxDepth = 8;
+    private int lastCompletedDepth = 0;
+    private int lastCompletedScore = 0;
+    private int rootBestScore;
+
+    // Search budget, overridden by analyze() and the warm-up
+    private long searchTimeLimitMs = MOVE_TIME_LIMIT_MS - SAFETY_BUFFER_MS;
+    private long searchNodeLimit = Long.MAX_VALUE;
+    private volatile boolean stopRequested = false;
+
+    // Streaming analysis, only set while runAnalysis() is active
+    private Consumer<AnalysisUpdate> updateSink;
+    private int rootMultiPv = 1;
+    private int[] rootScores = new int[0];
+    private int lastReportedMove = -1;
+
+    // Tracing, enabled with -Dstackoverfour.trace.dir=<directory>
+    private static final String TRACE_DIR = System.getProperty("stackoverfour.trace.dir");
+    private final SearchTrace trace;
+    private long ttProbes;
+    private long ttHits;
+
+    // Shared read-only tables for the current board shape
+    private ConfigTables tables;
+
+    // Position carried between moves, and the line we expected the game to follow
+    private static final int PV_MOVE_BONUS = 80000;
+    private GameState state;
+    private int[] expectedLine = new int[0];
+    private int rootHintMove = -1;
 
     // Move ordering
     private final int[][] historyTable;
     private final int[] killerMoves;
 
     // Caching
-    private final Map<String, TranspositionEntry> transpositionTable;
+    private static final int EVAL_CACHE_BITS = 16;
+    private final TranspositionTable transpositionTable;
+    private final EvaluationCache evaluationCache;
+
+    // Forced-win search, each side run on 1/PROOF_SEARCH_SLICE of the move budget
+    private static final int PROOF_SEARCH_SLICE = 16;
+    private boolean[] rootExcluded;
 
     // Pattern matching arrays
     private static final int[][] THREAT_PATTERNS = {
@@ -53,40 +102,124 @@ public class StackOverFour extends Player {
             {1, 1, 0, 0}, {0, 0, 1, 1}, {1, 0, 1, 0}, {0, 1, 0, 1}
     };
 
-    private static class TranspositionEntry {
-        final int depth;
-        final int score;
-        final int bestMove;
-        final long timestamp;
-        final byte flag;
-
-        TranspositionEntry(int depth, int score, int bestMove, byte flag) {
-            this.depth = depth;
-            this.score = score;
-            this.bestMove = bestMove;
-            this.flag = flag;
-            this.timestamp = System.currentTimeMillis();
-        }
-    }
-
     public StackOverFour(Counter counter) {
         super(counter, "StackOverFour");
         this.historyTable = new int[10][8];
         this.killerMoves = new int[MAX_DEPTH];
-        this.transpositionTable = new HashMap<>(TRANSPOSITION_TABLE_SIZE);
+        this.transpositionTable = TranspositionTable.create(TRANSPOSITION_TABLE_BITS);
+        this.evaluationCache = new EvaluationCache(EVAL_CACHE_BITS);
+        prepare(COMPETITION_CONFIG);
+        if (warmedUp.compareAndSet(false, true)) {
+            warmUp();
+        }
+        // Opened after warm-up so canned searches never reach the trace file
+        this.trace = openTrace(counter);
+    }
+
+    private static SearchTrace openTrace(Counter counter) {
+        if (TRACE_DIR == null) return null;
+        try {
+            String fileName = "stackoverfour-" + counter.getStringRepresentation() + "-" +
+                    ProcessHandle.current().pid() + "-" + System.nanoTime() + ".trace";
+            return new SearchTrace(Paths.get(TRACE_DIR, fileName));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void prepare(GameConfig config) {
+        tables = ConfigTables.forConfig(config);
+        state = new GameState(tables);
+        evaluationCache.clear();
+    }
+
+    // Catches the state up with board and picks the root move to try first: the next move
+    // of the previous PV when the opponent played the reply we expected, else the TT move.
+    private void syncState(Board board) {
+        if (!tables.matches(board.getConfig())) {
+            prepare(board.getConfig());
+        }
+        boolean continued = state.sync(board);
+        rootHintMove = -1;
+        if (continued && expectedLine.length > 2 && state.lastMove() == expectedLine[1]) {
+            rootHintMove = expectedLine[2];
+        } else {
+            long entry = transpositionTable.probe(state.key(getCounter()));
+            if (entry != TranspositionTable.MISS) rootHintMove = TranspositionTable.bestMove(entry);
+        }
+        expectedLine = new int[0];
+    }
+
+    GameState getState() {
+        return state;
+    }
+
+    // Runs short searches over canned positions so the hot paths are JIT-compiled
+    // before the first real move. Done once per JVM and bounded by WARMUP_TIME_LIMIT_MS.
+    // Returns the time it took.
+    long warmUp() {
+        long startTime = System.currentTimeMillis();
+        long defaultTimeLimitMs = searchTimeLimitMs;
+        searchTimeLimitMs = WARMUP_TIME_LIMIT_MS;
+
+        for (int[] moves : WARMUP_POSITIONS) {
+            if (isTimeExceeded(startTime)) break;
+            try {
+                Board board = new Board(COMPETITION_CONFIG);
+                Counter player = getCounter();
+                for (int col : moves) {
+                    board = new Board(board, col, player);
+                    player = player.getOther();
+                }
+                syncState(board);
+                iterativeDeepeningSearch(board, startTime);
+            } catch (Exception e) {
+                continue;
+            }
+        }
+
+        // Warm-up results must not leak into real games
+        searchTimeLimitMs = defaultTimeLimitMs;
+        for (int[] row : historyTable) Arrays.fill(row, 0);
+        Arrays.fill(killerMoves, 0);
+        transpositionTable.clear();
+        state = new GameState(tables);
+        nodeCount = 0;
+        lastCompletedDepth = 0;
+        return System.currentTimeMillis() - startTime;
     }
 
     @Override
     public int makeMove(Board board) {
         long startTime = System.currentTimeMillis();
-        int usedMemoryMB = getUsedMemoryMB();
+        syncState(board);
+        if (trace == null) {
+            return playMove(board, selectMove(board, startTime));
+        }
 
-        if (usedMemoryMB > MEMORY_THRESHOLD_MB) {
-            cleanupMemory();
+        trace.record(SearchTrace.MOVE_START, state.pieceCount(), getUsedMemoryMB());
+        int move = playMove(board, selectMove(board, startTime));
+        trace.record(SearchTrace.MOVE_END, move, System.currentTimeMillis() - startTime);
+        try {
+            trace.flush();
+        } catch (Exception e) {
+            // Tracing must never cost us the game
         }
+        return move;
+    }
+
+    // Remembers the position we hand back, so the next call only has to find the reply
+    private int playMove(Board board, int move) {
+        if (isValidMove(board, move)) state.play(move, getCounter());
+        return move;
+    }
+
+    private int selectMove(Board board, long startTime) {
+        int usedMemoryMB = getUsedMemoryMB();
+        rootExcluded = null;
 
         // First move preference for center
-        if (isEmptyBoard(board)) {
+        if (state.pieceCount() == 0) {
             return board.getConfig().getWidth() / 2;
         }
 
@@ -98,28 +231,176 @@ public class StackOverFour extends Player {
         int defensiveMove = findWinningMove(board, getCounter().getOther());
         if (defensiveMove != -1) return defensiveMove;
 
+        // Emergency fast move if under severe constraints
+        boolean underPressure = usedMemoryMB > CRITICAL_MEMORY_MB || System.currentTimeMillis() - startTime > 1000;
+
+        // Check for forced wins deeper than the fork check
+        if (!underPressure) {
+            int provenMove = runProofSearch(board);
+            if (provenMove != -1) return provenMove;
+        }
+
         // Check for fork threats
         int forkMove = findForkMove(board);
         if (forkMove != -1) return forkMove;
 
-        // Emergency fast move if under severe constraints
-        if (usedMemoryMB > CRITICAL_MEMORY_MB || System.currentTimeMillis() - startTime > 1000) {
+        if (underPressure) {
             return findFastMove(board);
         }
 
-        nodeCount.set(0);
-        return iterativeDeepeningSearch(board, startTime);
+        nodeCount = 0;
+        stopRequested = false;
+        int move = iterativeDeepeningSearch(board, startTime);
+        expectedLine = extractPrincipalVariation(board, move);
+        return move;
     }
 
-    private boolean isEmptyBoard(Board board) {
-        for (int col = 0; col < board.getConfig().getWidth(); col++) {
-            for (int row = 0; row < board.getConfig().getHeight(); row++) {
-                if (board.getCounterAtPosition(new Position(col, row)) != null) {
-                    return false;
+    // Searches the position for the side this engine plays, within the given time and
+    // node budget, and reports the last fully completed iteration.
+    AnalysisResult analyze(Board board, long timeLimitMs, long nodeLimit) {
+        stopRequested = false;
+        return search(board, timeLimitMs, nodeLimit);
+    }
+
+    // Leaves stopRequested alone, so a stop requested before the search starts is honoured
+    private AnalysisResult search(Board board, long timeLimitMs, long nodeLimit) {
+        long startTime = System.currentTimeMillis();
+        syncState(board);
+        rootExcluded = null;
+        if (generateMoves(board).isEmpty()) {
+            return new AnalysisResult(-1, 0, 0, new int[0], 0, 0);
+        }
+
+        long defaultTimeLimitMs = searchTimeLimitMs;
+        long defaultNodeLimit = searchNodeLimit;
+        searchTimeLimitMs = timeLimitMs;
+        searchNodeLimit = nodeLimit;
+        try {
+            nodeCount = 0;
+            int bestMove = iterativeDeepeningSearch(board, startTime);
+            return new AnalysisResult(bestMove, lastCompletedScore, lastCompletedDepth,
+                    extractPrincipalVariation(board, bestMove), nodeCount, System.currentTimeMillis() - startTime);
+        } finally {
+            searchTimeLimitMs = defaultTimeLimitMs;
+            searchNodeLimit = defaultNodeLimit;
+        }
+    }
+
+    // Streams iterative-deepening results for the side this engine plays. The search runs
+    // on its own thread once subscribed; an engine must not be used for makeMove while one
+    // of its analyses is running. multiPv > 1 searches the root with a full window so the
+    // top lines carry exact scores.
+    public Flow.Publisher<AnalysisUpdate> analysis(Board board, long timeLimitMs, int multiPv) {
+        return new AnalysisPublisher(this, board, timeLimitMs, Math.max(1, multiPv));
+    }
+
+    void runAnalysis(Board board, long timeLimitMs, int multiPv, Consumer<AnalysisUpdate> sink) {
+        updateSink = sink;
+        rootMultiPv = multiPv;
+        lastReportedMove = -1;
+        try {
+            search(board, timeLimitMs, Long.MAX_VALUE);
+        } finally {
+            updateSink = null;
+            rootMultiPv = 1;
+        }
+    }
+
+    void requestStop() {
+        stopRequested = true;
+    }
+
+    void clearStopRequest() {
+        stopRequested = false;
+    }
+
+    private void publishBestMoveChange(Board board, int depth, int move, int score, long startTime) {
+        lastReportedMove = move;
+        List<AnalysisUpdate.Line> lines = List.of(
+                new AnalysisUpdate.Line(move, score, extractPrincipalVariation(board, move)));
+        updateSink.accept(new AnalysisUpdate(depth, false, nodeCount, nodesPerSecond(startTime), lines));
+    }
+
+    private void publishIteration(Board board, int depth, long startTime) {
+        Integer[] moves = new Integer[rootScores.length];
+        for (int col = 0; col < moves.length; col++) moves[col] = col;
+        Arrays.sort(moves, (a, b) -> Integer.compare(rootScores[b], rootScores[a]));
+
+        List<AnalysisUpdate.Line> lines = new ArrayList<>();
+        for (int col : moves) {
+            if (lines.size() == rootMultiPv || rootScores[col] == Integer.MIN_VALUE) break;
+            lines.add(new AnalysisUpdate.Line(col, rootScores[col], extractPrincipalVariation(board, col)));
+        }
+        if (lines.isEmpty()) return;
+        updateSink.accept(new AnalysisUpdate(depth, true, nodeCount, nodesPerSecond(startTime), lines));
+    }
+
+    private long nodesPerSecond(long startTime) {
+        return nodeCount * 1000 / Math.max(1, System.currentTimeMillis() - startTime);
+    }
+
+    // Follows best moves stored in the TT from the root move onwards
+    private int[] extractPrincipalVariation(Board board, int rootMove) {
+        List<Integer> line = new ArrayList<>();
+        Counter player = getCounter();
+        int move = rootMove;
+        try {
+            while (line.size() < MAX_DEPTH && isValidMove(board, move)) {
+                board = new Board(board, move, player);
+                line.add(move);
+                if (checkWinFromPosition(board, move, findLastRow(board, move), player)) break;
+
+                player = player.getOther();
+                long entry = transpositionTable.probe(getPositionKey(board, player));
+                if (entry == TranspositionTable.MISS) break;
+                move = TranspositionTable.bestMove(entry);
+            }
+        } catch (Exception e) {
+            // Keep whatever prefix was valid
+        }
+        return line.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Tries to prove a forced win for us, then for the opponent. Returns a proven winning
+    // move, or -1 after marking root moves that lose by force in rootExcluded.
+    private int runProofSearch(Board board) {
+        ProofNumberSearch proofSearch = ProofNumberSearch.acquire();
+        if (proofSearch == null) return -1;
+        try {
+            long sliceMs = searchTimeLimitMs / PROOF_SEARCH_SLICE;
+            Counter us = getCounter();
+
+            int result = proofSearch.search(board, tables.centreOrder, us, us, System.currentTimeMillis() + sliceMs);
+            recordProofSearch(proofSearch, us, result);
+            if (result == ProofNumberSearch.PROVEN) return proofSearch.provenRootMove();
+
+            result = proofSearch.search(board, tables.centreOrder, us.getOther(), us, System.currentTimeMillis() + sliceMs);
+            recordProofSearch(proofSearch, us.getOther(), result);
+
+            // If every move loses, leave them all to the search so it can pick the longest defence
+            if (result != ProofNumberSearch.PROVEN) {
+                boolean[] losing = proofSearch.provenRootMoves();
+                for (boolean lost : losing) {
+                    if (lost) {
+                        rootExcluded = losing;
+                        break;
+                    }
                 }
             }
+            return -1;
+        } finally {
+            ProofNumberSearch.release(proofSearch);
         }
-        return true;
+    }
+
+    private void recordProofSearch(ProofNumberSearch proofSearch, Counter attacker, int result) {
+        if (trace == null) return;
+        int proven = 0;
+        for (boolean move : proofSearch.provenRootMoves()) {
+            if (move) proven++;
+        }
+        trace.record(SearchTrace.PROOF_SEARCH, (attacker == Counter.O ? 0 : 1 << 24) | (result << 16) | proven,
+                proofSearch.getNodeCount());
     }
 
     private int findWinningMove(Board board, Counter player) {
@@ -187,6 +468,8 @@ public class StackOverFour extends Player {
         Counter player = getCounter();
         for (int col = 0; col < board.getConfig().getWidth(); col++) {
             if (!isValidMove(board, col)) continue;
+            // A fork the proof search showed to lose is skipped so later forks still get a look
+            if (rootExcluded != null && rootExcluded[col]) continue;
             try {
                 Board nextBoard = new Board(board, col, player);
                 if (hasMultipleWinningMoves(nextBoard, player)) return col;
@@ -216,40 +499,84 @@ public class StackOverFour extends Player {
     }
 
     private int iterativeDeepeningSearch(Board board, long startTime) {
-        int bestMove = board.getConfig().getWidth() / 2;
+        int bestMove = firstLegalMove(board);
         int lastBestMove = -1;
+        lastCompletedDepth = 0;
+        lastCompletedScore = 0;
+        ttProbes = 0;
+        ttHits = 0;
+        // The cache counters are cumulative, so report this search's share only
+        long evalProbesBefore = evaluationCache.getProbes();
+        long evalHitsBefore = evaluationCache.getHits();
 
         for (int depth = 4; depth <= currentMaxDepth && !isTimeExceeded(startTime); depth++) {
+            if (trace != null) trace.record(SearchTrace.ITERATION_START, depth, 0);
             int move = findMoveAtDepth(board, depth, startTime);
             if (!isTimeExceeded(startTime)) {
                 bestMove = move;
+                lastCompletedDepth = depth;
+                lastCompletedScore = rootBestScore;
+                if (trace != null) trace.record(SearchTrace.ITERATION_END, (depth << 16) | move, nodeCount);
+                if (updateSink != null) publishIteration(board, depth, startTime);
                 if (bestMove == lastBestMove && depth > 6) break;
                 lastBestMove = bestMove;
+            } else if (lastCompletedDepth == 0 && rootBestScore != Integer.MIN_VALUE) {
+                // Nothing completed: the best root move scored so far beats a blind guess
+                bestMove = move;
+            }
+        }
+
+        if (trace != null) {
+            if (isTimeExceeded(startTime)) {
+                trace.record(SearchTrace.TIME_CHECK, lastCompletedDepth, System.currentTimeMillis() - startTime);
             }
+            trace.record(SearchTrace.TT_STATS, transpositionTable.capacity(), (ttProbes << 32) | (ttHits & 0xFFFFFFFFL));
+            long evalProbes = evaluationCache.getProbes() - evalProbesBefore;
+            long evalHits = evaluationCache.getHits() - evalHitsBefore;
+            trace.record(SearchTrace.EVAL_CACHE_STATS, evalProbes == 0 ? 0 : (int) (evalHits * 10_000 / evalProbes),
+                    evalHits);
         }
 
         return bestMove;
     }
 
     private int findMoveAtDepth(Board board, int depth, long startTime) {
-        int alpha = Integer.MIN_VALUE;
+        // -MAX rather than MIN so negating the window cannot overflow
+        int alpha = -Integer.MAX_VALUE;
         int beta = Integer.MAX_VALUE;
         int bestScore = Integer.MIN_VALUE;
-        int bestMove = board.getConfig().getWidth() / 2;
+        int bestMove = firstLegalMove(board);
+        if (rootScores.length != board.getConfig().getWidth()) {
+            rootScores = new int[board.getConfig().getWidth()];
+        }
+        Arrays.fill(rootScores, Integer.MIN_VALUE);
 
         int[] moveOrder = getMoveOrder(board);
         for (int col : moveOrder) {
             if (isTimeExceeded(startTime) || !isValidMove(board, col)) continue;
+            if (rootExcluded != null && rootExcluded[col]) continue;
 
             try {
                 Board nextBoard = new Board(board, col, getCounter());
-                int score = -negamax(nextBoard, depth - 1, -beta, -alpha, getCounter().getOther(), startTime);
+                state.play(col, getCounter());
+                int score;
+                try {
+                    score = -negamax(nextBoard, depth - 1, -beta, -alpha, getCounter().getOther(), startTime);
+                } finally {
+                    state.undo(col);
+                }
+                if (trace != null) trace.record(SearchTrace.ROOT_MOVE, (depth << 16) | col, score);
+                if (isTimeExceeded(startTime)) continue;
+                rootScores[col] = score;
 
                 if (score > bestScore) {
                     bestScore = score;
                     bestMove = col;
+                    if (updateSink != null && col != lastReportedMove) {
+                        publishBestMoveChange(board, depth, col, score, startTime);
+                    }
                 }
-                alpha = Math.max(alpha, score);
+                if (rootMultiPv == 1) alpha = Math.max(alpha, score);
                 if (score >= beta) {
                     historyTable[col][depth % board.getConfig().getHeight()] += depth * depth;
                 }
@@ -258,9 +585,21 @@ public class StackOverFour extends Player {
             }
         }
 
+        rootBestScore = bestScore;
         return bestMove;
     }
 
+    // Centre-most legal move, avoiding moves proven to lose where possible
+    private int firstLegalMove(Board board) {
+        int fallback = -1;
+        for (int col : tables.centreOrder) {
+            if (!isValidMove(board, col)) continue;
+            if (rootExcluded == null || !rootExcluded[col]) return col;
+            if (fallback == -1) fallback = col;
+        }
+        return fallback;
+    }
+
     private int[] getMoveOrder(Board board) {
         int width = board.getConfig().getWidth();
         int[] moves = new int[width];
@@ -274,7 +613,8 @@ public class StackOverFour extends Player {
             }
 
             scores[col] = 0;
-            scores[col] += COLUMN_WEIGHTS[col] * CENTER_BONUS;
+            scores[col] += tables.columnBonus[col];
+            if (col == rootHintMove) scores[col] += PV_MOVE_BONUS;
 
             try {
                 Board nextBoard = new Board(board, col, getCounter());
@@ -311,16 +651,22 @@ public class StackOverFour extends Player {
     }
 
     private int negamax(Board board, int depth, int alpha, int beta, Counter player, long startTime) {
-        nodeCount.incrementAndGet();
+        nodeCount++;
         if (isTimeExceeded(startTime)) return 0;
 
-        String boardHash = getBoardHash(board);
-        TranspositionEntry entry = transpositionTable.get(boardHash);
-        if (entry != null && entry.depth >= depth) {
-            if (entry.flag == 0) return entry.score;
-            if (entry.flag == 1) alpha = Math.max(alpha, entry.score);
-            if (entry.flag == 2) beta = Math.min(beta, entry.score);
-            if (alpha >= beta) return entry.score;
+        long positionKey = state.key(player);
+        long entry = transpositionTable.probe(positionKey);
+        if (trace != null) {
+            ttProbes++;
+            if (entry != TranspositionTable.MISS) ttHits++;
+        }
+        if (entry != TranspositionTable.MISS && TranspositionTable.depth(entry) >= depth) {
+            int entryScore = TranspositionTable.score(entry);
+            byte entryFlag = TranspositionTable.flag(entry);
+            if (entryFlag == TranspositionTable.EXACT) return entryScore;
+            if (entryFlag == TranspositionTable.LOWER_BOUND) alpha = Math.max(alpha, entryScore);
+            if (entryFlag == TranspositionTable.UPPER_BOUND) beta = Math.min(beta, entryScore);
+            if (alpha >= beta) return entryScore;
         }
 
         if (isWinningPosition(board, -1, player)) return WINNING_SCORE;
@@ -339,7 +685,13 @@ public class StackOverFour extends Player {
         for (int col : moves) {
             try {
                 Board nextBoard = new Board(board, col, player);
-                int score = -negamax(nextBoard, depth - 1, -beta, -alpha, player.getOther(), startTime);
+                state.play(col, player);
+                int score;
+                try {
+                    score = -negamax(nextBoard, depth - 1, -beta, -alpha, player.getOther(), startTime);
+                } finally {
+                    state.undo(col);
+                }
 
                 if (score > bestScore) {
                     bestScore = score;
@@ -355,18 +707,19 @@ public class StackOverFour extends Player {
             }
         }
 
-        byte flag = 0;
-        if (bestScore <= alpha) flag = 2;
-        else if (bestScore >= beta) flag = 1;
+        byte flag = TranspositionTable.EXACT;
+        if (bestScore <= alpha) flag = TranspositionTable.UPPER_BOUND;
+        else if (bestScore >= beta) flag = TranspositionTable.LOWER_BOUND;
 
         if (!isTimeExceeded(startTime)) {
-            transpositionTable.put(boardHash, new TranspositionEntry(depth, bestScore, bestMove, flag));
+            transpositionTable.store(positionKey, depth, bestScore, bestMove, flag);
         }
 
         return bestScore;
     }
 
     private int quiescenceSearch(Board board, int alpha, int beta, Counter player, long startTime) {
+        nodeCount++;
         int standPat = evaluatePosition(board, player);
         if (standPat >= beta) return beta;
         alpha = Math.max(alpha, standPat);
@@ -377,7 +730,13 @@ public class StackOverFour extends Player {
 
             try {
                 Board nextBoard = new Board(board, move, player);
-                int score = -quiescenceSearch(nextBoard, -beta, -alpha, player.getOther(), startTime);
+                state.play(move, player);
+                int score;
+                try {
+                    score = -quiescenceSearch(nextBoard, -beta, -alpha, player.getOther(), startTime);
+                } finally {
+                    state.undo(move);
+                }
 
                 if (score >= beta) return beta;
                 alpha = Math.max(alpha, score);
@@ -457,7 +816,7 @@ public class StackOverFour extends Player {
         return false;
     }
 
-    private boolean checkWinFromPosition(Board board, int col, int row, Counter player) {
+    boolean checkWinFromPosition(Board board, int col, int row, Counter player) {
         // Check horizontal
         for (int startCol = Math.max(0, col - 3); startCol <= Math.min(col, board.getConfig().getWidth() - 4); startCol++) {
             if (checkLine(board, startCol, row, 1, 0, player)) return true;
@@ -479,11 +838,9 @@ public class StackOverFour extends Player {
 
     private boolean isWinningPosition(Board board, int lastCol, Counter player) {
         if (lastCol == -1) {
-            for (int x = 0; x < board.getConfig().getWidth(); x++) {
-                for (int y = 0; y < board.getConfig().getHeight(); y++) {
-                    if (checkWinFromPosition(board, x, y, player)) {
-                        return true;
-                    }
+            for (int line = 0; line < tables.lineColumns.length; line++) {
+                if (isLineOwned(board, tables.lineColumns[line], tables.lineRows[line], player)) {
+                    return true;
                 }
             }
             return false;
@@ -493,6 +850,13 @@ public class StackOverFour extends Player {
         return checkWinFromPosition(board, lastCol, row, player);
     }
 
+    private boolean isLineOwned(Board board, int[] columns, int[] rows, Counter player) {
+        for (int i = 0; i < columns.length; i++) {
+            if (board.getCounterAtPosition(new Position(columns[i], rows[i])) != player) return false;
+        }
+        return true;
+    }
+
     private boolean checkLine(Board board, int startX, int startY, int dx, int dy, Counter player) {
         if (!isValidPosition(board, startX, startY)) return false;
 
@@ -515,20 +879,20 @@ public class StackOverFour extends Player {
     }
 
     private int evaluatePosition(Board board, Counter player) {
-        int score = 0;
+        long key = state.key(player);
+        int cached = evaluationCache.probe(key);
+        if (cached != EvaluationCache.MISS) return cached;
+
+        int score = computeEvaluation(board, player);
+        evaluationCache.store(key, score);
+        return score;
+    }
+
+    private int computeEvaluation(Board board, Counter player) {
         Counter opponent = player.getOther();
 
-        // Center control
-        for (int col = 0; col < board.getConfig().getWidth(); col++) {
-            for (int row = 0; row < board.getConfig().getHeight(); row++) {
-                Counter counter = board.getCounterAtPosition(new Position(col, row));
-                if (counter == player) {
-                    score += COLUMN_WEIGHTS[col] * ROW_WEIGHTS[row] * POSITION_VALUE_SCALE;
-                } else if (counter == opponent) {
-                    score -= COLUMN_WEIGHTS[col] * ROW_WEIGHTS[row] * POSITION_VALUE_SCALE;
-                }
-            }
-        }
+        // Center control, kept up to date move by move
+        int score = state.positional(player);
 
         score += evaluateThreats(board, player) - evaluateThreats(board, opponent);
         return score;
@@ -540,10 +904,10 @@ public class StackOverFour extends Player {
         for (int col = 0; col < board.getConfig().getWidth(); col++) {
             for (int row = 0; row < board.getConfig().getHeight(); row++) {
                 if (board.getCounterAtPosition(new Position(col, row)) == player) {
-                    threatScore += evaluateDirectionalThreat(board, col, row, 1, 0, player);
-                    threatScore += evaluateDirectionalThreat(board, col, row, 0, 1, player);
-                    threatScore += evaluateDirectionalThreat(board, col, row, 1, 1, player);
-                    threatScore += evaluateDirectionalThreat(board, col, row, 1, -1, player);
+                    threatScore += threatValue(classifyDirectionalThreat(board, col, row, 1, 0, player));
+                    threatScore += threatValue(classifyDirectionalThreat(board, col, row, 0, 1, player));
+                    threatScore += threatValue(classifyDirectionalThreat(board, col, row, 1, 1, player));
+                    threatScore += threatValue(classifyDirectionalThreat(board, col, row, 1, -1, player));
                 }
             }
         }
@@ -551,7 +915,34 @@ public class StackOverFour extends Player {
         return threatScore;
     }
 
-    private int evaluateDirectionalThreat(Board board, int startX, int startY, int dx, int dy, Counter player) {
+    // Per-category threat counts, the linear features behind evaluateThreats
+    int[] countThreats(Board board, Counter player) {
+        int[] counts = new int[3];
+        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+        for (int col = 0; col < board.getConfig().getWidth(); col++) {
+            for (int row = 0; row < board.getConfig().getHeight(); row++) {
+                if (board.getCounterAtPosition(new Position(col, row)) != player) continue;
+                for (int[] direction : directions) {
+                    int category = classifyDirectionalThreat(board, col, row, direction[0], direction[1], player);
+                    if (category != NO_THREAT) counts[category]++;
+                }
+            }
+        }
+
+        return counts;
+    }
+
+    private int threatValue(int category) {
+        switch (category) {
+            case UNBLOCKED_THREE_THREAT: return WEIGHTS.unblockedThree;
+            case BLOCKED_THREE_THREAT: return WEIGHTS.blockedThree;
+            case OPEN_TWO_THREAT: return WEIGHTS.twoInARowOpen;
+            default: return 0;
+        }
+    }
+
+    private int classifyDirectionalThreat(Board board, int startX, int startY, int dx, int dy, Counter player) {
         int consecutive = 0;
         int openEnds = 0;
 
@@ -580,19 +971,18 @@ public class StackOverFour extends Player {
         }
 
         if (consecutive == 3) {
-            return openEnds > 0 ? UNBLOCKED_THREE : BLOCKED_THREE;
+            return openEnds > 0 ? UNBLOCKED_THREE_THREAT : BLOCKED_THREE_THREAT;
         } else if (consecutive == 2) {
-            return openEnds == 2 ? TWO_IN_A_ROW_OPEN : 0;
+            return openEnds == 2 ? OPEN_TWO_THREAT : NO_THREAT;
         }
 
-        return 0;
+        return NO_THREAT;
     }
 
     private List<Integer> generateMoves(Board board) {
         List<Integer> moves = new ArrayList<>();
-        int[] columnOrder = {4, 5, 3, 6, 2, 7, 1, 8, 0, 9};
 
-        for (int col : columnOrder) {
+        for (int col : tables.centreOrder) {
             if (isValidMove(board, col)) {
                 moves.add(col);
             }
@@ -601,38 +991,27 @@ public class StackOverFour extends Player {
     }
 
     private boolean isTimeExceeded(long startTime) {
-        return System.currentTimeMillis() - startTime > (MOVE_TIME_LIMIT_MS - SAFETY_BUFFER_MS);
+        return nodeCount > searchNodeLimit || stopRequested ||
+                System.currentTimeMillis() - startTime > searchTimeLimitMs;
     }
 
     private int getUsedMemoryMB() {
         return (int)((runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
     }
 
-    private void cleanupMemory() {
-        if (getUsedMemoryMB() > CRITICAL_MEMORY_MB) {
-            transpositionTable.clear();
-            System.gc();
-            return;
-        }
-
-        long currentTime = System.currentTimeMillis();
-        transpositionTable.entrySet().removeIf(e ->
-                currentTime - e.getValue().timestamp > 5000 ||
-                        transpositionTable.size() > TRANSPOSITION_TABLE_SIZE / 2);
-    }
-
-    private String getBoardHash(Board board) {
-        StringBuilder hash = new StringBuilder();
+    private long getPositionKey(Board board, Counter player) {
+        long key = player == Counter.X ? tables.zobristSideKey : 0L;
         for (int col = 0; col < board.getConfig().getWidth(); col++) {
             for (int row = 0; row < board.getConfig().getHeight(); row++) {
                 Counter counter = board.getCounterAtPosition(new Position(col, row));
-                hash.append(counter == null ? '-' : counter.getStringRepresentation());
+                if (counter == null) break;
+                key ^= tables.zobristKeys[col][row][counter == Counter.O ? 0 : 1];
             }
         }
-        return hash.toString();
+        return key;
     }
 
-    private boolean isValidMove(Board board, int col) {
+    boolean isValidMove(Board board, int col) {
         return col >= 0 && col < board.getConfig().getWidth() &&
                 !board.hasCounterAtPosition(new Position(col, board.getConfig().getHeight() - 1));
     }
@@ -642,7 +1021,7 @@ public class StackOverFour extends Player {
                 y >= 0 && y < board.getConfig().getHeight();
     }
 
-    private int findLastRow(Board board, int col) {
+    int findLastRow(Board board, int col) {
         for (int row = 0; row < board.getConfig().getHeight(); row++) {
             if (board.getCounterAtPosition(new Position(col, row)) == null) {
                 return row > 0 ? row - 1 : 0;
@@ -0,0 +1,101 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+// Fixed-size, lock-free transposition table. Each slot is two longs: the entry data and
+// the position key XORed with that data, so a torn or racing write fails the key check
+// instead of returning a mixed entry. Memory is allocated once and never grows.
+//
+// Entries are private to an engine instance by default. Setting
+// -Dstackoverfour.tt.shared.mb=<megabytes> makes every instance in the JVM use one
+// shared arena of that size instead, keeping total TT memory under a global budget.
+class TranspositionTable {
+    static final long MISS = 0L;
+    static final byte EXACT = 0;
+    static final byte LOWER_BOUND = 1;
+    static final byte UPPER_BOUND = 2;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final long VALID = 1L << 63;
+    private static final int SHARED_MB = Integer.getInteger("stackoverfour.tt.shared.mb", 0);
+    private static final int BYTES_PER_SLOT = 16;
+    // 2 << 29 longs is the largest slot array Java can allocate
+    private static final int MAX_SIZE_BITS = 29;
+
+    private static volatile TranspositionTable shared;
+
+    private final long[] slots;
+    private final int mask;
+
+    TranspositionTable(int sizeBits) {
+        this.slots = new long[2 << sizeBits];
+        this.mask = (1 << sizeBits) - 1;
+    }
+
+    // Per-instance table, or the JVM-wide arena when a shared budget is configured
+    static TranspositionTable create(int privateSizeBits) {
+        if (SHARED_MB <= 0) return new TranspositionTable(privateSizeBits);
+
+        TranspositionTable table = shared;
+        if (table == null) {
+            synchronized (TranspositionTable.class) {
+                table = shared;
+                if (table == null) {
+                    table = new TranspositionTable(sharedSizeBits(SHARED_MB));
+                    shared = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    // Largest power-of-two slot count that fits in the budget
+    static int sharedSizeBits(long megabytes) {
+        long slotCount = megabytes * 1024 * 1024 / BYTES_PER_SLOT;
+        int sizeBits = 63 - Long.numberOfLeadingZeros(Math.max(slotCount, 1));
+        return Math.min(sizeBits, MAX_SIZE_BITS);
+    }
+
+    long probe(long key) {
+        int index = ((int) key & mask) << 1;
+        long data = (long) SLOTS.getOpaque(slots, index + 1);
+        long check = (long) SLOTS.getOpaque(slots, index);
+        return (check ^ data) == key && data != MISS ? data : MISS;
+    }
+
+    void store(long key, int depth, int score, int bestMove, byte flag) {
+        long data = VALID |
+                ((long) (flag & 0x3) << 48) |
+                ((long) (depth & 0xFF) << 40) |
+                ((long) (bestMove & 0xFF) << 32) |
+                (score & 0xFFFFFFFFL);
+        int index = ((int) key & mask) << 1;
+        SLOTS.setOpaque(slots, index, key ^ data);
+        SLOTS.setOpaque(slots, index + 1, data);
+    }
+
+    void clear() {
+        Arrays.fill(slots, 0L);
+    }
+
+    int capacity() {
+        return slots.length >> 1;
+    }
+
+    static int depth(long entry) {
+        return (int) (entry >>> 40) & 0xFF;
+    }
+
+    static int score(long entry) {
+        return (int) entry;
+    }
+
+    static int bestMove(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    static byte flag(long entry) {
+        return (byte) ((entry >>> 48) & 0x3);
+    }
+}
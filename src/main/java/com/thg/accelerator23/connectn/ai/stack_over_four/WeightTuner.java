@@ -0,0 +1,407 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+import com.thehutgroup.accelerator.connectn.player.Board;
+import com.thehutgroup.accelerator.connectn.player.Counter;
+import com.thehutgroup.accelerator.connectn.player.GameConfig;
+import com.thehutgroup.accelerator.connectn.player.Position;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Texel-style tuner for EvaluationWeights.
+//   generate <dataset> <games> [seed]          play fast self-play games into a binary dataset
+//   tune <dataset> <weights-out> [iterations]  fit the weights by logistic loss and write a weights resource
+//
+// The position term is tuned per cell in evaluation units rather than as column x row
+// weights: the product form is not identifiable (scaling columns by k and rows by 1/k
+// gives the same evaluation) and rounding small column/row weights lost most of the fit.
+// Column and row weights are written unchanged since they still drive move ordering.
+//
+// Dataset layout: int magic, byte width, byte height, then one record per position:
+// byte result (0 = X won, 1 = draw, 2 = O won) followed by the cells packed 2 bits each
+// (0 empty, 1 O, 2 X), column by column from the bottom.
+public class WeightTuner {
+    static final int DATASET_MAGIC = 0x534F4644; // "SOFD"
+    private static final GameConfig DEFAULT_CONFIG = new GameConfig(10, 8, 4);
+    private static final int MIN_RECORDED_PLY = 4;
+    private static final int GRADIENT_SPLIT = 4096;
+    private static final double LEARNING_RATE = 0.02;
+
+    private final StackOverFour engine;
+    private final ForkJoinPool pool;
+
+    WeightTuner(ForkJoinPool pool) {
+        this.engine = new StackOverFour(Counter.O);
+        this.pool = pool;
+    }
+
+    // Self-play generation
+
+    int generate(Path file, int games, GameConfig config, long seed) throws IOException {
+        Random random = new Random(seed);
+        int positions = 0;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(DATASET_MAGIC);
+            out.writeByte(config.getWidth());
+            out.writeByte(config.getHeight());
+
+            for (int game = 0; game < games; game++) {
+                List<Board> recorded = new ArrayList<>();
+                int result = playGame(config, random, recorded);
+                for (Board board : recorded) {
+                    writeRecord(out, board, result);
+                    positions++;
+                }
+            }
+        }
+        return positions;
+    }
+
+    // Both sides take immediate wins, block immediate losses and otherwise play
+    // centre-biased random moves. Returns the result in dataset encoding.
+    private int playGame(GameConfig config, Random random, List<Board> recorded) {
+        Board board = new Board(config);
+        Counter player = Counter.O;
+
+        for (int ply = 0; ply < config.getWidth() * config.getHeight(); ply++) {
+            int col = findWinningColumn(board, player);
+            boolean winning = col != -1;
+            if (!winning) col = findWinningColumn(board, player.getOther());
+            if (col == -1) col = randomColumn(board, random);
+
+            board = play(board, col, player);
+            if (winning) return player == Counter.O ? 2 : 0;
+            if (ply + 1 >= MIN_RECORDED_PLY) recorded.add(board);
+            player = player.getOther();
+        }
+        return 1;
+    }
+
+    private int findWinningColumn(Board board, Counter player) {
+        for (int col = 0; col < board.getConfig().getWidth(); col++) {
+            if (!engine.isValidMove(board, col)) continue;
+            Board nextBoard = play(board, col, player);
+            if (engine.checkWinFromPosition(nextBoard, col, engine.findLastRow(nextBoard, col), player)) return col;
+        }
+        return -1;
+    }
+
+    private int randomColumn(Board board, Random random) {
+        int width = board.getConfig().getWidth();
+        int[] weights = new int[width];
+        int total = 0;
+        for (int col = 0; col < width; col++) {
+            if (!engine.isValidMove(board, col)) continue;
+            weights[col] = width - Math.abs(2 * col - (width - 1)) / 2;
+            total += weights[col];
+        }
+
+        int pick = random.nextInt(total);
+        for (int col = 0; col < width; col++) {
+            pick -= weights[col];
+            if (pick < 0) return col;
+        }
+        return -1;
+    }
+
+    private void writeRecord(DataOutputStream out, Board board, int result) throws IOException {
+        int width = board.getConfig().getWidth();
+        int height = board.getConfig().getHeight();
+        byte[] packed = new byte[(width * height + 3) / 4];
+
+        for (int col = 0; col < width; col++) {
+            for (int row = 0; row < height; row++) {
+                Counter counter = board.getCounterAtPosition(new Position(col, row));
+                int code = counter == null ? 0 : counter == Counter.O ? 1 : 2;
+                int cell = col * height + row;
+                packed[cell / 4] |= code << ((cell % 4) * 2);
+            }
+        }
+
+        out.writeByte(result);
+        out.write(packed);
+    }
+
+    // Dataset loading
+
+    static class Dataset {
+        final int width;
+        final int height;
+        int size;
+        byte[] cells = new byte[0];
+        int[] threats = new int[0];
+        float[] results = new float[0];
+
+        Dataset(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        void add(byte[] positionCells, int[] threatDifferences, float result) {
+            int cellCount = width * height;
+            if (size == results.length) {
+                int capacity = Math.max(1024, size * 2);
+                cells = Arrays.copyOf(cells, capacity * cellCount);
+                threats = Arrays.copyOf(threats, capacity * 3);
+                results = Arrays.copyOf(results, capacity);
+            }
+            System.arraycopy(positionCells, 0, cells, size * cellCount, cellCount);
+            System.arraycopy(threatDifferences, 0, threats, size * 3, 3);
+            results[size++] = result;
+        }
+    }
+
+    // Streams the dataset once, keeping only the evaluation features of each position:
+    // cell ownership from O's point of view and O-minus-X threat counts.
+    Dataset load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != DATASET_MAGIC) throw new IOException("Not a tuning dataset: " + file);
+            int width = in.readUnsignedByte();
+            int height = in.readUnsignedByte();
+            GameConfig config = new GameConfig(width, height, 4);
+            Dataset dataset = new Dataset(width, height);
+
+            byte[] packed = new byte[(width * height + 3) / 4];
+            byte[] cells = new byte[width * height];
+            int[] threatDifferences = new int[3];
+            while (true) {
+                int result;
+                try {
+                    result = in.readUnsignedByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                in.readFully(packed);
+
+                Board board = new Board(config);
+                for (int cell = 0; cell < cells.length; cell++) {
+                    int code = (packed[cell / 4] >> ((cell % 4) * 2)) & 3;
+                    cells[cell] = (byte) (code == 1 ? 1 : code == 2 ? -1 : 0);
+                    if (code != 0) board = play(board, cell / height, code == 1 ? Counter.O : Counter.X);
+                }
+
+                int[] ours = engine.countThreats(board, Counter.O);
+                int[] theirs = engine.countThreats(board, Counter.X);
+                for (int i = 0; i < 3; i++) threatDifferences[i] = ours[i] - theirs[i];
+                dataset.add(cells, threatDifferences, result / 2.0f);
+            }
+            return dataset;
+        }
+    }
+
+    // Tuning
+
+    // Parameter layout: cell weights column by column from the bottom, then unblocked
+    // three, blocked three, open two
+    static double[] toParameters(EvaluationWeights weights, int width, int height) {
+        int cells = width * height;
+        double[] parameters = new double[cells + 3];
+        for (int col = 0; col < width; col++) {
+            for (int row = 0; row < height; row++) {
+                parameters[col * height + row] = weights.positionWeight(col, row, width, height);
+            }
+        }
+        parameters[cells] = weights.unblockedThree;
+        parameters[cells + 1] = weights.blockedThree;
+        parameters[cells + 2] = weights.twoInARowOpen;
+        return parameters;
+    }
+
+    // Weights are clamped to at least 1 so no cell or threat can turn into a penalty
+    static EvaluationWeights toWeights(double[] parameters, EvaluationWeights base, int width, int height) {
+        int cells = width * height;
+        int[] cellWeights = new int[cells];
+        for (int cell = 0; cell < cells; cell++) cellWeights[cell] = clampWeight(parameters[cell]);
+        return new EvaluationWeights(base.columnWeights.clone(), base.rowWeights.clone(),
+                clampWeight(parameters[cells]), clampWeight(parameters[cells + 1]), clampWeight(parameters[cells + 2]),
+                cellWeights, width, height);
+    }
+
+    private static int clampWeight(double parameter) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, Math.round(parameter)));
+    }
+
+    static double evaluate(Dataset dataset, int index, double[] parameters) {
+        int cells = dataset.width * dataset.height;
+        int base = index * cells;
+        double material = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            material += dataset.cells[base + cell] * parameters[cell];
+        }
+
+        int threatBase = index * 3;
+        return material +
+                dataset.threats[threatBase] * parameters[cells] +
+                dataset.threats[threatBase + 1] * parameters[cells + 1] +
+                dataset.threats[threatBase + 2] * parameters[cells + 2];
+    }
+
+    // Mean logistic loss of sigmoid(eval / scale) against the game results
+    double loss(Dataset dataset, double[] parameters, double scale) {
+        return pool.invoke(new GradientTask(dataset, parameters, scale, 0, dataset.size, false))[parameters.length];
+    }
+
+    // Gradient of the mean loss; the loss itself is returned in the last slot
+    double[] gradient(Dataset dataset, double[] parameters, double scale) {
+        return pool.invoke(new GradientTask(dataset, parameters, scale, 0, dataset.size, true));
+    }
+
+    private static class GradientTask extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Dataset dataset;
+        private final double[] parameters;
+        private final double scale;
+        private final int from;
+        private final int to;
+        private final boolean withGradient;
+
+        GradientTask(Dataset dataset, double[] parameters, double scale, int from, int to, boolean withGradient) {
+            this.dataset = dataset;
+            this.parameters = parameters;
+            this.scale = scale;
+            this.from = from;
+            this.to = to;
+            this.withGradient = withGradient;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > GRADIENT_SPLIT) {
+                int middle = (from + to) >>> 1;
+                GradientTask left = new GradientTask(dataset, parameters, scale, from, middle, withGradient);
+                left.fork();
+                double[] right = new GradientTask(dataset, parameters, scale, middle, to, withGradient).compute();
+                double[] sum = left.join();
+                for (int i = 0; i < sum.length; i++) sum[i] += right[i];
+                return sum;
+            }
+
+            int cells = dataset.width * dataset.height;
+            double[] sum = new double[parameters.length + 1];
+            for (int index = from; index < to; index++) {
+                double eval = evaluate(dataset, index, parameters);
+                double probability = 1.0 / (1.0 + Math.exp(-eval / scale));
+                double result = dataset.results[index];
+                double clamped = Math.min(Math.max(probability, 1e-12), 1 - 1e-12);
+                sum[parameters.length] -= (result * Math.log(clamped) + (1 - result) * Math.log(1 - clamped)) / dataset.size;
+                if (!withGradient) continue;
+
+                // d(loss)/d(eval) for logistic loss on a sigmoid
+                double delta = (probability - result) / (scale * dataset.size);
+                int base = index * cells;
+                for (int cell = 0; cell < cells; cell++) {
+                    sum[cell] += delta * dataset.cells[base + cell];
+                }
+                for (int i = 0; i < 3; i++) {
+                    sum[cells + i] += delta * dataset.threats[index * 3 + i];
+                }
+            }
+            return sum;
+        }
+    }
+
+    // Picks the sigmoid scale that best fits the starting weights, as in Texel tuning
+    double fitScale(Dataset dataset, double[] parameters) {
+        double bestScale = 1;
+        double bestLoss = Double.MAX_VALUE;
+        for (double scale = 100; scale <= 1_000_000; scale *= 1.25) {
+            double loss = loss(dataset, parameters, scale);
+            if (loss < bestLoss) {
+                bestLoss = loss;
+                bestScale = scale;
+            }
+        }
+        return bestScale;
+    }
+
+    // Adam with per-parameter step sizes proportional to the starting magnitude,
+    // so cell weights of 100 and threat scores of 5000 move at comparable rates
+    double[] tune(Dataset dataset, double[] start, double scale, int iterations, ProgressListener listener) {
+        double[] parameters = start.clone();
+        double[] stepScale = new double[parameters.length];
+        for (int i = 0; i < parameters.length; i++) stepScale[i] = Math.max(1.0, Math.abs(start[i]));
+
+        double[] m = new double[parameters.length];
+        double[] v = new double[parameters.length];
+        double beta1 = 0.9;
+        double beta2 = 0.999;
+        for (int iteration = 1; iteration <= iterations; iteration++) {
+            double[] gradient = gradient(dataset, parameters, scale);
+            for (int i = 0; i < parameters.length; i++) {
+                double g = gradient[i] * stepScale[i];
+                m[i] = beta1 * m[i] + (1 - beta1) * g;
+                v[i] = beta2 * v[i] + (1 - beta2) * g * g;
+                double mHat = m[i] / (1 - Math.pow(beta1, iteration));
+                double vHat = v[i] / (1 - Math.pow(beta2, iteration));
+                parameters[i] -= LEARNING_RATE * stepScale[i] * mHat / (Math.sqrt(vHat) + 1e-12);
+            }
+            if (listener != null && (iteration % 25 == 0 || iteration == iterations)) {
+                listener.progress(iteration, gradient[parameters.length]);
+            }
+        }
+        return parameters;
+    }
+
+    interface ProgressListener {
+        void progress(int iteration, double loss);
+    }
+
+    private Board play(Board board, int col, Counter player) {
+        try {
+            return new Board(board, col, player);
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid move " + col, e);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || !(args[0].equals("generate") || args[0].equals("tune"))) {
+            System.err.println("Usage: WeightTuner generate <dataset> <games> [seed]");
+            System.err.println("       WeightTuner tune <dataset> <weights-out> [iterations]");
+            System.exit(1);
+        }
+
+        WeightTuner tuner = new WeightTuner(ForkJoinPool.commonPool());
+        long start = System.currentTimeMillis();
+
+        if (args[0].equals("generate")) {
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+            int positions = tuner.generate(Paths.get(args[1]), Integer.parseInt(args[2]), DEFAULT_CONFIG, seed);
+            System.out.printf("Wrote %,d positions in %.1f s%n", positions, (System.currentTimeMillis() - start) / 1000.0);
+            return;
+        }
+
+        Dataset dataset = tuner.load(Paths.get(args[1]));
+        System.out.printf("Loaded %,d positions in %.1f s%n", dataset.size, (System.currentTimeMillis() - start) / 1000.0);
+
+        EvaluationWeights base = EvaluationWeights.load();
+        double[] initial = toParameters(base, dataset.width, dataset.height);
+        double scale = tuner.fitScale(dataset, initial);
+        System.out.printf("Sigmoid scale %.0f, initial loss %.6f%n", scale, tuner.loss(dataset, initial, scale));
+
+        int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 300;
+        double[] tuned = tuner.tune(dataset, initial, scale, iterations,
+                (iteration, loss) -> System.out.printf("iteration %4d  loss %.6f%n", iteration, loss));
+
+        EvaluationWeights weights = toWeights(tuned, base, dataset.width, dataset.height);
+        try (OutputStream out = Files.newOutputStream(Paths.get(args[2]))) {
+            weights.write(out, "Tuned on " + dataset.size + " positions from " + args[1]);
+        }
+        System.out.printf("Final loss %.6f, wrote %s in %.1f s%n", tuner.loss(dataset, toParameters(weights,
+                dataset.width, dataset.height), scale), args[2], (System.currentTimeMillis() - start) / 1000.0);
+    }
+}
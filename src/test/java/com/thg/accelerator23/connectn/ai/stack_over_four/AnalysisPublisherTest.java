@@ -0,0 +1,144 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+
+import org.junit.jupiter.api.*;
+import com.thehutgroup.accelerator.connectn.player.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+public class AnalysisPublisherTest {
+
+    private static class CollectingSubscriber implements Flow.Subscriber<AnalysisUpdate> {
+        final List<AnalysisUpdate> updates = new CopyOnWriteArrayList<>();
+        final CountDownLatch firstUpdate = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final boolean cancelOnSubscribe;
+        final boolean cancelOnFirst;
+        Flow.Subscription subscription;
+
+        CollectingSubscriber(boolean cancelOnSubscribe, boolean cancelOnFirst) {
+            this.cancelOnSubscribe = cancelOnSubscribe;
+            this.cancelOnFirst = cancelOnFirst;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelOnSubscribe) {
+                cancel();
+                return;
+            }
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(AnalysisUpdate update) {
+            updates.add(update);
+            firstUpdate.countDown();
+            if (cancelOnFirst) cancel();
+        }
+
+        private void cancel() {
+            subscription.cancel();
+            cancelled.countDown();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+    private Board play(GameConfig config, String moves) throws Exception {
+        Board board = new Board(config);
+        Counter player = Counter.O;
+        for (char move : moves.toCharArray()) {
+            board = new Board(board, move - '0', player);
+            player = player.getOther();
+        }
+        return board;
+    }
+
+    @Test
+    void testUpdatesPublishedPerDepthWithMultiPv() throws Exception {
+        Board board = play(new GameConfig(5, 4, 4), "0123401234");
+        StackOverFour ai = new StackOverFour(Counter.O);
+        CollectingSubscriber subscriber = new CollectingSubscriber(false, false);
+
+        ai.analysis(board, 3000, 3).subscribe(subscriber);
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS), "Analysis should complete");
+
+        int lastDepth = 0;
+        int completeUpdates = 0;
+        for (AnalysisUpdate update : subscriber.updates) {
+            assertTrue(update.getDepth() >= lastDepth, "Depths should not go backwards");
+            lastDepth = update.getDepth();
+            assertTrue(update.getBestMove() >= 0 && update.getBestMove() < 5);
+            assertEquals(update.getBestMove(), update.getPrincipalVariation()[0], "PV should start with the best move");
+            if (!update.isComplete()) continue;
+
+            completeUpdates++;
+            assertTrue(update.getLines().size() <= 3);
+            for (int i = 1; i < update.getLines().size(); i++) {
+                assertTrue(update.getLines().get(i - 1).getScore() >= update.getLines().get(i).getScore(),
+                        "Lines should be ordered best first");
+            }
+        }
+        assertTrue(completeUpdates > 0, "Each completed depth should publish an update");
+    }
+
+    @Test
+    void testCancellationStopsSearch() throws Exception {
+        Board board = play(new GameConfig(6, 5, 4), "2323");
+        StackOverFour ai = new StackOverFour(Counter.O);
+        CollectingSubscriber subscriber = new CollectingSubscriber(false, true);
+
+        Flow.Publisher<AnalysisUpdate> publisher = ai.analysis(board, 60_000, 1);
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.firstUpdate.await(30, TimeUnit.SECONDS), "Should publish a first update");
+        assertTrue(subscriber.cancelled.await(5, TimeUnit.SECONDS));
+
+        assertSearchStops(publisher);
+    }
+
+    @Test
+    void testCancelInOnSubscribeStopsSearch() throws Exception {
+        // Opening positions on the full board run to the time limit unless stopped
+        Board board = play(new GameConfig(10, 8, 4), "45");
+        StackOverFour ai = new StackOverFour(Counter.O);
+        CollectingSubscriber subscriber = new CollectingSubscriber(true, false);
+
+        Flow.Publisher<AnalysisUpdate> publisher = ai.analysis(board, 60_000, 1);
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.cancelled.await(5, TimeUnit.SECONDS));
+
+        assertSearchStops(publisher);
+        assertTrue(subscriber.updates.isEmpty(), "A cancelled subscriber should receive nothing");
+    }
+
+    @Test
+    void testStopRequestedBeforeSearchStartsIsHonoured() throws Exception {
+        // The cancel-before-start race, made deterministic on a search that would run 60 s
+        Board board = play(new GameConfig(10, 8, 4), "45");
+        StackOverFour ai = new StackOverFour(Counter.O);
+
+        ai.requestStop();
+        long startTime = System.currentTimeMillis();
+        ai.runAnalysis(board, 60_000, 1, update -> { });
+        assertTrue(System.currentTimeMillis() - startTime < 5000, "A pending stop must not be cleared by the search");
+    }
+
+    // A late subscriber sees completion as soon as the search ends, well before its 60 s limit
+    private void assertSearchStops(Flow.Publisher<AnalysisUpdate> publisher) throws Exception {
+        CollectingSubscriber probe = new CollectingSubscriber(false, false);
+        publisher.subscribe(probe);
+        assertTrue(probe.completed.await(5, TimeUnit.SECONDS), "Search should stop once the only subscriber cancels");
+    }
+}
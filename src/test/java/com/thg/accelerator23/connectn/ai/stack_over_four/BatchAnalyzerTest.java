@@ -0,0 +1,94 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import com.thehutgroup.accelerator.connectn.player.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class BatchAnalyzerTest {
+    @TempDir
+    Path tempDir;
+
+    private BatchAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        analyzer = new BatchAnalyzer(new GameConfig(10, 8, 4), 2, 1000, 200_000);
+    }
+
+    @Test
+    void testResultsStreamInInputOrder() throws Exception {
+        Path input = tempDir.resolve("positions.txt");
+        Path output = tempDir.resolve("results.tsv");
+        Files.write(input, List.of("# comment", "44536209", "", "4453", "9x", "0123456789"));
+
+        assertEquals(4, analyzer.run(input, output, false));
+
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(BatchAnalyzer.HEADER, lines.get(0));
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(1).startsWith("2\t44536209\t"));
+        assertTrue(lines.get(2).startsWith("4\t4453\t"));
+        assertTrue(lines.get(3).startsWith("5\t9x\tERROR"), "Bad positions should be reported, not abort the run");
+        assertTrue(lines.get(4).startsWith("6\t0123456789\t"));
+
+        String[] first = lines.get(1).split("\t");
+        assertTrue(Integer.parseInt(first[4]) >= 4, "A depth should complete within the budget: " + lines.get(1));
+        int bestMove = Integer.parseInt(first[2]);
+        assertTrue(bestMove >= 0 && bestMove < 10, "Best move should be a column");
+    }
+
+    @Test
+    void testExhaustedBudgetIsReportedAsNoResult() throws Exception {
+        Path input = tempDir.resolve("positions.txt");
+        Path output = tempDir.resolve("results.tsv");
+        Files.write(input, List.of("55555555"));
+
+        new BatchAnalyzer(new GameConfig(10, 8, 4), 1, 1000, 1).run(input, output, false);
+
+        List<String> lines = Files.readAllLines(output);
+        assertTrue(lines.get(1).startsWith("1\t55555555\tNO_RESULT"), "Got " + lines.get(1));
+    }
+
+    @Test
+    void testFallbackMoveIsLegalWhenNoDepthCompletes() throws Exception {
+        // Column 5, the old hard-coded fallback, is full
+        Board board = new Board(new GameConfig(10, 8, 4));
+        Counter player = Counter.O;
+        for (int i = 0; i < 8; i++) {
+            board = new Board(board, 5, player);
+            player = player.getOther();
+        }
+
+        StackOverFour engine = new StackOverFour(player);
+        AnalysisResult result = engine.analyze(board, 1000, 1);
+        assertFalse(result.hasResult());
+        assertTrue(engine.isValidMove(board, result.bestMove), "Fallback " + result.bestMove + " must be legal");
+    }
+
+    @Test
+    void testResumeContinuesFromCheckpoint() throws Exception {
+        Path input = tempDir.resolve("positions.txt");
+        Path output = tempDir.resolve("results.tsv");
+        Files.write(input, List.of("45", "4453"));
+        assertEquals(2, analyzer.run(input, output, false));
+
+        Files.write(input, List.of("45", "4453", "44556"));
+        assertEquals(1, analyzer.run(input, output, true), "Only the new position should be analysed");
+
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(3).startsWith("3\t44556\t"));
+        assertEquals("3", Files.readAllLines(BatchAnalyzer.checkpointPath(output)).get(0));
+    }
+
+    @Test
+    void testParseMoves() {
+        assertArrayEquals(new int[]{4, 4, 5, 3}, BatchAnalyzer.parseMoves("4453"));
+        assertArrayEquals(new int[]{4, 11, 0}, BatchAnalyzer.parseMoves("4, 11,0"));
+    }
+}
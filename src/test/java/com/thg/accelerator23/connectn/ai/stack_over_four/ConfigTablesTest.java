@@ -0,0 +1,27 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+
+import org.junit.jupiter.api.*;
+import com.thehutgroup.accelerator.connectn.player.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigTablesTest {
+    private final GameConfig config = new GameConfig(10, 8, 4);
+
+    @Test
+    void testTablesSharedBetweenInstances() {
+        assertSame(ConfigTables.forConfig(config), ConfigTables.forConfig(new GameConfig(10, 8, 4)),
+                "Each board shape should build its tables once");
+        assertEquals(10 * 5 + 7 * 8 + 7 * 5 * 2, ConfigTables.forConfig(config).lineColumns.length,
+                "10x8 board has 176 lines of four");
+    }
+
+    @Test
+    void testTablesUseEngineWeights() {
+        ConfigTables tables = ConfigTables.forConfig(config);
+        for (int col = 0; col < config.getWidth(); col++) {
+            for (int row = 0; row < config.getHeight(); row++) {
+                assertEquals(StackOverFour.WEIGHTS.positionWeight(col, row, 10, 8), tables.positionWeights[col][row]);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.*;
+
+public class EvaluationCacheTest {
+    private EvaluationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EvaluationCache(8);
+    }
+
+    @Test
+    void testStoreAndProbe() {
+        long key = 0x1234_5678_9ABC_DEF0L;
+        assertEquals(EvaluationCache.MISS, cache.probe(key));
+
+        cache.store(key, -4200);
+        assertEquals(-4200, cache.probe(key));
+        assertEquals(0.5, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void testCollidingKeyIsRejected() {
+        long key = 0x1111_1111_0000_0001L;
+        long sameSlot = 0x2222_2222_0000_0001L;
+
+        cache.store(key, 77);
+        assertEquals(EvaluationCache.MISS, cache.probe(sameSlot), "Different check bits must not hit");
+
+        cache.store(sameSlot, 88);
+        assertEquals(88, cache.probe(sameSlot));
+        assertEquals(EvaluationCache.MISS, cache.probe(key), "Slot should have been replaced");
+    }
+
+    @Test
+    void testConcurrentAccessNeverReturnsTornEntries() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Callable<Boolean> worker = () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 200_000; i++) {
+                    long key = random.nextLong();
+                    // Score derived from the key so any mismatch shows a torn read
+                    int expected = (int) (key >>> 40);
+                    cache.store(key, expected);
+                    int probed = cache.probe(key);
+                    if (probed != EvaluationCache.MISS && probed != expected) return false;
+                }
+                return true;
+            };
+            for (Future<Boolean> result : pool.invokeAll(java.util.Collections.nCopies(4, worker))) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
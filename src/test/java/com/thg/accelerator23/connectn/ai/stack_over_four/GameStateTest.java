@@ -0,0 +1,121 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thehutgroup.accelerator.connectn.player.Board;
+import com.thehutgroup.accelerator.connectn.player.Counter;
+import com.thehutgroup.accelerator.connectn.player.GameConfig;
+import com.thehutgroup.accelerator.connectn.player.InvalidMoveException;
+
+public class GameStateTest {
+    private static final GameConfig CONFIG = new GameConfig(10, 8, 4);
+
+    private ConfigTables tables;
+
+    @BeforeEach
+    void setUp() {
+        tables = ConfigTables.forConfig(CONFIG);
+    }
+
+    private static Board play(int... columns) throws InvalidMoveException {
+        Board board = new Board(CONFIG);
+        Counter player = Counter.O;
+        for (int col : columns) {
+            board = new Board(board, col, player);
+            player = player.getOther();
+        }
+        return board;
+    }
+
+    private static GameState rebuilt(ConfigTables tables, Board board) {
+        GameState state = new GameState(tables);
+        state.rebuild(board);
+        return state;
+    }
+
+    @Test
+    void testOpponentReplyIsAppliedIncrementally() throws InvalidMoveException {
+        GameState state = new GameState(tables);
+        Board board = new Board(CONFIG);
+        assertFalse(state.sync(board), "First sync has nothing to diff against");
+
+        board = new Board(board, 4, Counter.O);
+        state.play(4, Counter.O);
+        board = new Board(board, 4, Counter.X);
+
+        assertTrue(state.sync(board));
+        assertEquals(4, state.lastMove());
+        assertEquals(2, state.pieceCount());
+
+        GameState fresh = rebuilt(tables, board);
+        assertEquals(fresh.key(Counter.O), state.key(Counter.O));
+        assertEquals(fresh.positional(Counter.O), state.positional(Counter.O));
+    }
+
+    @Test
+    void testInconsistentBoardFallsBackToRebuild() throws InvalidMoveException {
+        GameState state = new GameState(tables);
+        Board board = new Board(new Board(CONFIG), 4, Counter.O);
+        state.sync(board);
+
+        // Two new counters since the last position cannot be a single reply
+        Board skipped = new Board(new Board(board, 3, Counter.X), 5, Counter.O);
+        assertFalse(state.sync(skipped));
+        assertEquals(-1, state.lastMove());
+        assertEquals(3, state.pieceCount());
+        assertEquals(rebuilt(tables, skipped).key(Counter.X), state.key(Counter.X));
+
+        // A different game with our last counter replaced
+        Board other = new Board(new Board(new Board(CONFIG), 3, Counter.X), 5, Counter.X);
+        assertFalse(state.sync(other));
+        assertEquals(rebuilt(tables, other).key(Counter.X), state.key(Counter.X));
+    }
+
+    @Test
+    void testSwappedColumnsBelowTheTopFallBackToRebuild() throws InvalidMoveException {
+        GameState state = new GameState(tables);
+        state.sync(play(4, 5, 5, 4));
+
+        // Same tops in columns 4 and 5 plus one new counter in 3, but the bottom cells differ
+        Board swapped = play(5, 4, 5, 4, 3);
+        assertFalse(state.sync(swapped));
+        assertEquals(-1, state.lastMove());
+        assertEquals(rebuilt(tables, swapped).key(Counter.X), state.key(Counter.X));
+        assertEquals(rebuilt(tables, swapped).positional(Counter.X), state.positional(Counter.X));
+    }
+
+    @Test
+    void testPlayAndUndoRestoreState() {
+        GameState state = rebuilt(tables, new Board(CONFIG));
+        long key = state.key(Counter.O);
+
+        assertEquals(0, state.play(2, Counter.O));
+        assertEquals(1, state.play(2, Counter.X));
+        assertNotEquals(key, state.key(Counter.O));
+
+        state.undo(2);
+        state.undo(2);
+        assertEquals(key, state.key(Counter.O));
+        assertEquals(0, state.positional(Counter.O));
+        assertEquals(0, state.pieceCount());
+    }
+
+    @Test
+    void testEngineCarriesStateBetweenMoves() throws InvalidMoveException {
+        StackOverFour engine = new StackOverFour(Counter.O);
+        Board board = new Board(CONFIG);
+
+        int first = engine.makeMove(board);
+        board = new Board(new Board(board, first, Counter.O), 0, Counter.X);
+        int second = engine.makeMove(board);
+
+        // The opponent's reply was applied on top of the carried state, then our move on top of that
+        GameState state = engine.getState();
+        assertEquals(0, state.lastMove(), "Second move should sync incrementally");
+        assertTrue(engine.isValidMove(board, second));
+        Board after = new Board(board, second, Counter.O);
+        assertEquals(3, state.pieceCount());
+        assertEquals(rebuilt(tables, after).key(Counter.X), state.key(Counter.X));
+    }
+}
@@ -0,0 +1,32 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram(10_000);
+        for (int latency = 1; latency <= 1000; latency++) {
+            histogram.record(latency);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(500, histogram.percentile(0.50));
+        assertEquals(990, histogram.percentile(0.99));
+        assertEquals(999, histogram.percentile(0.999));
+        assertEquals(1000, histogram.max());
+    }
+
+    @Test
+    void testValuesBeyondRangeKeepExactMax() {
+        LatencyHistogram histogram = new LatencyHistogram(100);
+        histogram.record(5);
+        histogram.record(12_345);
+
+        assertEquals(12_345, histogram.max());
+        assertEquals(12_345, histogram.percentile(1.0), "Overflow bucket should report the real max");
+        assertEquals(0, new LatencyHistogram(100).percentile(0.5), "Empty histogram should report zero");
+    }
+}
@@ -0,0 +1,41 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class PerftTest {
+    private static Perft perft;
+
+    @BeforeAll
+    static void setUp() {
+        perft = new Perft();
+    }
+
+    @Test
+    void testKnownCounts() {
+        for (Perft.PerftCase perftCase : Perft.CASES) {
+            Perft.Counts counts = perft.run(perftCase);
+            assertEquals(perftCase.leaves, counts.leaves, perftCase.name + " leaves");
+            assertEquals(perftCase.wins, counts.wins, perftCase.name + " wins");
+            assertEquals(perftCase.draws, counts.draws, perftCase.name + " draws");
+        }
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Perft.PerftCase perftCase : Perft.CASES) {
+                Perft.Counts sequential = perft.run(perftCase);
+                Perft.Counts parallel = perft.runParallel(perftCase, pool);
+                assertTrue(parallel.matches(sequential.leaves, sequential.wins, sequential.draws),
+                        perftCase.name + " parallel counts should match sequential");
+                assertEquals(sequential.visited, parallel.visited, perftCase.name + " visited");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.thehutgroup.accelerator.connectn.player.Board;
+import com.thehutgroup.accelerator.connectn.player.Counter;
+import com.thehutgroup.accelerator.connectn.player.GameConfig;
+import com.thehutgroup.accelerator.connectn.player.InvalidMoveException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProofNumberSearchTest {
+    private static final GameConfig CONFIG = new GameConfig(10, 8, 4);
+    private static final int[] ORDER = {4, 5, 3, 6, 2, 7, 1, 8, 0, 9};
+
+    private ProofNumberSearch search;
+
+    @BeforeEach
+    void setUp() {
+        search = new ProofNumberSearch(1 << 18);
+    }
+
+    private static Board play(GameConfig config, int... columns) throws InvalidMoveException {
+        Board board = new Board(config);
+        Counter player = Counter.O;
+        for (int col : columns) {
+            board = new Board(board, col, player);
+            player = player.getOther();
+        }
+        return board;
+    }
+
+    @Test
+    void testProvesOpenTwoWin() throws InvalidMoveException {
+        // O holds 3 and 4 on the bottom row with 1, 2, 5 and 6 free: extending makes a double threat
+        Board board = play(CONFIG, 3, 3, 4, 4);
+        int result = search.search(board, ORDER, Counter.O, Counter.O, System.currentTimeMillis() + 5000);
+
+        assertEquals(ProofNumberSearch.PROVEN, result);
+        int move = search.provenRootMove();
+        assertTrue(move == 2 || move == 5, "Proven move should extend the two, got " + move);
+    }
+
+    @Test
+    void testFindsRootMovesThatLoseByForce() throws InvalidMoveException {
+        // O holds 2..4 on row 1 over empty columns 1 and 5; X playing under either end loses
+        Board board = play(CONFIG, 4, 2, 2, 3, 3, 9, 4);
+        int result = search.search(board, ORDER, Counter.O, Counter.X, System.currentTimeMillis() + 5000);
+
+        assertNotEquals(ProofNumberSearch.DISPROVEN, result);
+        boolean[] losing = search.provenRootMoves();
+        assertTrue(losing[1] && losing[5], "Playing under the threat should be proven losing");
+    }
+
+    @Test
+    void testDisprovesWhenNoWinIsPossible() throws InvalidMoveException {
+        // Four in a row cannot be made on a 3-wide board except vertically, and X blocks every column
+        GameConfig narrow = new GameConfig(3, 4, 4);
+        Board board = play(narrow, 0, 0, 1, 1, 2, 2);
+        int result = search.search(board, new int[]{1, 0, 2}, Counter.O, Counter.O, System.currentTimeMillis() + 5000);
+
+        assertEquals(ProofNumberSearch.DISPROVEN, result);
+        assertEquals(-1, search.provenRootMove());
+    }
+
+    @Test
+    void testNodePoolBoundsTheSearch() {
+        ProofNumberSearch small = new ProofNumberSearch(64);
+        int result = small.search(new Board(CONFIG), ORDER, Counter.O, Counter.O, System.currentTimeMillis() + 5000);
+
+        assertEquals(ProofNumberSearch.UNKNOWN, result);
+        assertTrue(small.getNodeCount() <= small.getCapacity());
+    }
+
+    @Test
+    void testSharedSearchersStayWithinBudget() {
+        List<ProofNumberSearch> held = new ArrayList<>();
+        try {
+            ProofNumberSearch search;
+            while ((search = ProofNumberSearch.acquire()) != null) {
+                held.add(search);
+                assertTrue(held.size() <= ProofNumberSearch.maxSearchers(), "More searchers than the budget allows");
+            }
+            assertFalse(held.isEmpty());
+        } finally {
+            held.forEach(ProofNumberSearch::release);
+        }
+
+        // Released searchers are handed out again rather than reallocated
+        ProofNumberSearch again = ProofNumberSearch.acquire();
+        assertTrue(held.contains(again));
+        ProofNumberSearch.release(again);
+    }
+}
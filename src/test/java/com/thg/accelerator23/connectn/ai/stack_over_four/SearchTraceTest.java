@@ -0,0 +1,73 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+
+public class SearchTraceTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRecordedEventsDecode() throws Exception {
+        Path file = tempDir.resolve("search.trace");
+        try (SearchTrace trace = new SearchTrace(file)) {
+            trace.record(SearchTrace.MOVE_START, 3, 120);
+            trace.record(SearchTrace.ITERATION_START, 4, 0);
+            trace.record(SearchTrace.ROOT_MOVE, (4 << 16) | 5, -250);
+            trace.record(SearchTrace.ITERATION_END, (4 << 16) | 5, 1234);
+            trace.record(SearchTrace.MOVE_END, 5, 42);
+        }
+
+        String output = decode(file);
+        assertTrue(output.contains("MOVE_START      pieces=3 usedMemoryMB=120"));
+        assertTrue(output.contains("ROOT_MOVE       depth=4 col=5 score=-250"));
+        assertTrue(output.contains("ITERATION_END   depth=4 best=5 nodes=1234"));
+        assertTrue(output.contains("MOVE_END        col=5 elapsedMs=42"));
+    }
+
+    @Test
+    void testRingBufferOverflowKeepsNewestEvents() throws Exception {
+        Path file = tempDir.resolve("overflow.trace");
+        try (SearchTrace trace = new SearchTrace(file, 4)) {
+            for (int depth = 1; depth <= 6; depth++) {
+                trace.record(SearchTrace.ITERATION_START, depth, 0);
+            }
+        }
+
+        String output = decode(file);
+        assertTrue(output.contains("DROPPED         events=2"));
+        assertFalse(output.contains("depth=2"), "Oldest events should be overwritten");
+        assertTrue(output.contains("depth=6"));
+        assertTrue(output.indexOf("depth=3") < output.indexOf("depth=6"), "Events should stay in order");
+    }
+
+    @Test
+    void testClosedAndDiscardedTracesLeaveGcFanOut() throws Exception {
+        int before = SearchTrace.liveTraces();
+        SearchTrace closed = new SearchTrace(tempDir.resolve("closed.trace"), 4);
+        assertEquals(before + 1, SearchTrace.liveTraces());
+        closed.close();
+        assertEquals(before, SearchTrace.liveTraces());
+
+        for (int i = 0; i < 20; i++) {
+            new SearchTrace(tempDir.resolve("discarded-" + i + ".trace"), 4);
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (SearchTrace.liveTraces() > before && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(before, SearchTrace.liveTraces(), "Unreachable traces should not be kept alive");
+    }
+
+    private String decode(Path file) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SearchTraceDecoder.decode(file, new PrintStream(bytes, true));
+        return bytes.toString();
+    }
+}
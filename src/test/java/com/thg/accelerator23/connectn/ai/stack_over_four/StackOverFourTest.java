@@ -113,6 +113,28 @@ public class StackOverFourTest {
         assertTrue(duration < 8000, "Move should complete within 8 seconds");
     }
 
+    @Test
+    void testWarmUpTimeBounded() {
+        // Construction only warms up once per JVM, so time the warm-up itself
+        long duration = ai.warmUp();
+
+        assertTrue(duration < 2 * StackOverFour.WARMUP_TIME_LIMIT_MS,
+                "Warm-up should stay within its time limit, took " + duration + "ms");
+    }
+
+    @Test
+    void testFirstSearchCompletesDepth() throws InvalidMoveException {
+        Board board = new Board(config);
+        Counter player = Counter.O;
+        for (int col : new int[]{4, 4, 5, 3, 6, 2, 0, 9}) {
+            board = new Board(board, col, player);
+            player = player.getOther();
+        }
+
+        AnalysisResult result = new StackOverFour(player).analyze(board, 2000, Long.MAX_VALUE);
+        assertTrue(result.depth >= 4, "First search should complete at least depth 4, got " + result.depth);
+    }
+
     @Test
     void testTimeLimitUnderPressure() throws Exception {
         Board board = new Board(config);
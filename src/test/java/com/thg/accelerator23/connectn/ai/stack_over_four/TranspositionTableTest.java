@@ -0,0 +1,60 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+
+import org.junit.jupiter.api.*;
+import com.thehutgroup.accelerator.connectn.player.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+    private TranspositionTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new TranspositionTable(10);
+    }
+
+    @Test
+    void testEntryRoundTrip() {
+        long key = 0x0123_4567_89AB_CDEFL;
+        assertEquals(TranspositionTable.MISS, table.probe(key));
+
+        table.store(key, 7, -Integer.MAX_VALUE + 1, 9, TranspositionTable.UPPER_BOUND);
+        long entry = table.probe(key);
+        assertNotEquals(TranspositionTable.MISS, entry, "Stored entry should be found");
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(-Integer.MAX_VALUE + 1, TranspositionTable.score(entry));
+        assertEquals(9, TranspositionTable.bestMove(entry));
+        assertEquals(TranspositionTable.UPPER_BOUND, TranspositionTable.flag(entry));
+    }
+
+    @Test
+    void testSharedSizeFromBudget() {
+        assertEquals(16, TranspositionTable.sharedSizeBits(1));
+        assertEquals(22, TranspositionTable.sharedSizeBits(64));
+
+        // Large budgets are clamped to the biggest slot array Java can allocate
+        for (long megabytes : new long[]{16384, 65536, Integer.MAX_VALUE}) {
+            int sizeBits = TranspositionTable.sharedSizeBits(megabytes);
+            assertEquals(29, sizeBits);
+            assertTrue((2L << sizeBits) <= Integer.MAX_VALUE, "Slot array length must fit in an int");
+            assertTrue((2 << sizeBits) > 0);
+        }
+    }
+
+    @Test
+    void testZeroEntryIsStillAHit() {
+        long key = 42L;
+        table.store(key, 0, 0, 0, TranspositionTable.EXACT);
+        assertNotEquals(TranspositionTable.MISS, table.probe(key));
+    }
+
+    @Test
+    void testCollidingKeyReplacesSlot() {
+        long key = 5L;
+        long sameSlot = 5L + (1L << 40);
+        table.store(key, 3, 100, 1, TranspositionTable.EXACT);
+        table.store(sameSlot, 4, 200, 2, TranspositionTable.LOWER_BOUND);
+
+        assertEquals(TranspositionTable.MISS, table.probe(key));
+        assertEquals(200, TranspositionTable.score(table.probe(sameSlot)));
+    }
+}
@@ -0,0 +1,90 @@
+package com.thg.accelerator23.connectn.ai.stack_over_four;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import com.thehutgroup.accelerator.connectn.player.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+public class WeightTunerTest {
+    @TempDir
+    Path tempDir;
+
+    private WeightTuner tuner;
+    private WeightTuner.Dataset dataset;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tuner = new WeightTuner(ForkJoinPool.commonPool());
+        Path file = tempDir.resolve("selfplay.bin");
+        int positions = tuner.generate(file, 50, new GameConfig(10, 8, 4), 42L);
+        dataset = tuner.load(file);
+        assertEquals(positions, dataset.size, "Every written position should be read back");
+    }
+
+    @Test
+    void testWeightsRoundTrip() throws Exception {
+        EvaluationWeights weights = EvaluationWeights.defaults();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        weights.write(out, "test");
+
+        EvaluationWeights read = EvaluationWeights.read(new ByteArrayInputStream(out.toByteArray()));
+        assertArrayEquals(weights.columnWeights, read.columnWeights);
+        assertArrayEquals(weights.rowWeights, read.rowWeights);
+        assertEquals(weights.unblockedThree, read.unblockedThree);
+        assertEquals(weights.blockedThree, read.blockedThree);
+        assertEquals(weights.twoInARowOpen, read.twoInARowOpen);
+    }
+
+    @Test
+    void testGradientMatchesFiniteDifference() {
+        double[] parameters = WeightTuner.toParameters(EvaluationWeights.defaults(), dataset.width, dataset.height);
+        double scale = tuner.fitScale(dataset, parameters);
+        double[] gradient = tuner.gradient(dataset, parameters, scale);
+
+        int cells = dataset.width * dataset.height;
+        for (int i : new int[]{4, cells / 2 + 3, cells}) {
+            double step = Math.max(1e-3, Math.abs(parameters[i]) * 1e-4);
+            double[] up = parameters.clone();
+            double[] down = parameters.clone();
+            up[i] += step;
+            down[i] -= step;
+            double numeric = (tuner.loss(dataset, up, scale) - tuner.loss(dataset, down, scale)) / (2 * step);
+            assertEquals(numeric, gradient[i], Math.max(1e-9, Math.abs(numeric) * 1e-3), "Parameter " + i);
+        }
+    }
+
+    @Test
+    void testTunedCellWeightsKeepResolutionAndStayPositive() throws Exception {
+        EvaluationWeights base = EvaluationWeights.defaults();
+        double[] parameters = WeightTuner.toParameters(base, 10, 8);
+        assertEquals(base.positionWeight(4, 3, 10, 8), parameters[4 * 8 + 3], 0.0);
+
+        parameters[0] = 137.4;
+        parameters[1] = -50;
+        EvaluationWeights tuned = WeightTuner.toWeights(parameters, base, 10, 8);
+        assertEquals(137, tuned.positionWeight(0, 0, 10, 8), "Cell weights should not be rounded to column x row");
+        assertEquals(1, tuned.positionWeight(0, 1, 10, 8), "Weights should be clamped to at least 1");
+        assertArrayEquals(base.columnWeights, tuned.columnWeights, "Move-ordering weights stay untouched");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tuned.write(out, "test");
+        EvaluationWeights read = EvaluationWeights.read(new ByteArrayInputStream(out.toByteArray()));
+        assertArrayEquals(tuned.cellWeights, read.cellWeights);
+        assertEquals(base.positionWeight(0, 0, 7, 6), read.positionWeight(0, 0, 7, 6),
+                "Other board sizes fall back to column x row");
+    }
+
+    @Test
+    void testTuningReducesLoss() {
+        double[] initial = WeightTuner.toParameters(EvaluationWeights.defaults(), dataset.width, dataset.height);
+        double scale = tuner.fitScale(dataset, initial);
+        double[] tuned = tuner.tune(dataset, initial, scale, 30, null);
+
+        assertTrue(tuner.loss(dataset, tuned, scale) < tuner.loss(dataset, initial, scale));
+    }
+}